@@ -7,6 +7,8 @@ public class Alert implements AlertInterface {
     private String condition;
     private long timestamp;
     private String priority;
+    // String form of the patient ID, created on first use
+    private String patientIdString;
 
     public Alert(int patientId, String condition, long timestamp, String priority) {
         this.patientId = patientId;
@@ -17,7 +19,17 @@ public class Alert implements AlertInterface {
 
     @Override
     public String getPatientId() {
-        return String.valueOf(patientId);
+        String id = patientIdString;
+        if (id == null) {
+            id = String.valueOf(patientId);
+            patientIdString = id;
+        }
+        return id;
+    }
+
+    @Override
+    public int getPatientIdAsInt() {
+        return patientId;
     }
 
     @Override
@@ -0,0 +1,21 @@
+package com.alerts;
+
+/**
+ * Conditions and priorities raised by the built-in strategies.
+ * Strategies use these constants instead of building strings, so raising an alert only allocates the alert.
+ */
+public final class AlertConditions {
+    public static final String CRITICAL_BLOOD_PRESSURE = "Critical Blood Pressure";
+    public static final String INCREASING_BLOOD_PRESSURE_TREND = "Increasing Blood Pressure Trend";
+    public static final String DECREASING_BLOOD_PRESSURE_TREND = "Decreasing Blood Pressure Trend";
+    public static final String HIGH_HEART_RATE = "High Heart Rate";
+    public static final String LOW_BLOOD_SATURATION = "Low Blood Saturation";
+    public static final String RAPID_BLOOD_SATURATION_DROP = "Rapid Blood Saturation Drop";
+    public static final String ABNORMAL_ECG = "Abnormal ECG";
+
+    public static final String PRIORITY_HIGH = "High";
+    public static final String PRIORITY_NORMAL = "Normal";
+
+    private AlertConditions() {
+    }
+}
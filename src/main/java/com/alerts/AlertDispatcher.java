@@ -0,0 +1,217 @@
+package com.alerts;
+
+import com.alerts.Decorator.AlertInterface;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Delivers alerts to sinks asynchronously, so a slow sink never blocks alert evaluation.
+ * <p>
+ * High priority alerts and all other alerts travel in separate lanes, each a pre-allocated ring
+ * buffer drained by its own thread, so high priority alerts never queue behind bulk alerts.
+ * Producers claim slots with a compare-and-set and never block: when a lane is full the alert is
+ * dropped and counted. Once a lane has delivered every queued alert, its sinks are told the batch
+ * ended, so buffering sinks can flush.
+ */
+public class AlertDispatcher {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final List<AlertSink> sinks = new CopyOnWriteArrayList<>();
+    private final Lane highLane;
+    private final Lane normalLane;
+    private final Consumer<Alert> storeSubscriber = this::dispatch;
+
+    public AlertDispatcher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of alerts each lane can hold, rounded up to a power of two
+     */
+    public AlertDispatcher(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        highLane = new Lane("alert-dispatch-high", size);
+        normalLane = new Lane("alert-dispatch-normal", size);
+    }
+
+    public void addSink(AlertSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(AlertSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Dispatches every alert added to the store from now on.
+     */
+    public void attach(AlertStore alertStore) {
+        alertStore.subscribe(storeSubscriber);
+    }
+
+    public void detach(AlertStore alertStore) {
+        alertStore.unsubscribe(storeSubscriber);
+    }
+
+    public void start() {
+        highLane.start();
+        normalLane.start();
+    }
+
+    /**
+     * Delivers the alerts that are already queued and stops the lane threads.
+     */
+    public void stop() throws InterruptedException {
+        highLane.stop();
+        normalLane.stop();
+    }
+
+    /**
+     * Queues an alert for delivery without blocking.
+     *
+     * @return {@code false} if the lane of the alert was full and the alert was dropped
+     */
+    public boolean dispatch(AlertInterface alert) {
+        return laneFor(alert).offer(alert);
+    }
+
+    public long getDeliveredCount() {
+        return highLane.delivered.sum() + normalLane.delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return highLane.dropped.sum() + normalLane.dropped.sum();
+    }
+
+    public long getSinkFailureCount() {
+        return highLane.failures.sum() + normalLane.failures.sum();
+    }
+
+    private Lane laneFor(AlertInterface alert) {
+        return AlertConditions.PRIORITY_HIGH.equals(alert.getPriority()) ? highLane : normalLane;
+    }
+
+    /**
+     * Multi-producer, single-consumer ring buffer with its consumer thread. A slot is published by
+     * setting its reference and freed by the consumer clearing it, so no locks are involved.
+     */
+    private final class Lane implements Runnable {
+        private final String name;
+        private final AtomicReferenceArray<AlertInterface> slots;
+        private final int mask;
+        private final AtomicLong claimed = new AtomicLong();
+        private volatile long consumed;
+        private volatile boolean running;
+        private volatile Thread thread;
+
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        Lane(String name, int capacity) {
+            this.name = name;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        boolean offer(AlertInterface alert) {
+            long sequence;
+            do {
+                sequence = claimed.get();
+                if (sequence - consumed >= slots.length()) {
+                    dropped.increment();
+                    return false;
+                }
+            } while (!claimed.compareAndSet(sequence, sequence + 1));
+            slots.lazySet((int) sequence & mask, alert);
+            LockSupport.unpark(thread);
+            return true;
+        }
+
+        synchronized void start() {
+            if (thread != null) {
+                return;
+            }
+            running = true;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        synchronized void stop() throws InterruptedException {
+            if (thread == null) {
+                return;
+            }
+            running = false;
+            LockSupport.unpark(thread);
+            thread.join();
+            thread = null;
+        }
+
+        @Override
+        public void run() {
+            long next = consumed;
+            boolean batchOpen = false;
+            while (true) {
+                int index = (int) next & mask;
+                AlertInterface alert = slots.get(index);
+                if (alert == null) {
+                    if (batchOpen) {
+                        batchOpen = false;
+                        endBatch();
+                        continue;
+                    }
+                    // Stop only once every claimed slot has been delivered
+                    if (!running && next == claimed.get()) {
+                        return;
+                    }
+                    // Producers and stop() unpark the thread after publishing, so a permit granted
+                    // before parking is not lost; the slot and the stop condition are checked again on waking
+                    LockSupport.park(this);
+                    continue;
+                }
+                slots.set(index, null);
+                consumed = ++next;
+                deliver(alert);
+                batchOpen = true;
+            }
+        }
+
+        private void endBatch() {
+            for (AlertSink sink : sinks) {
+                try {
+                    sink.endOfBatch();
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    System.err.println("Alert sink failed: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void deliver(AlertInterface alert) {
+            for (AlertSink sink : sinks) {
+                try {
+                    sink.deliver(alert);
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    System.err.println("Alert sink failed: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            delivered.increment();
+        }
+    }
+}
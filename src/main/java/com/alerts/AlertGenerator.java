@@ -1,46 +1,515 @@
 package com.alerts;
 
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Decorator.RepeatedAlertDecorator;
 import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.AlertTier;
 import com.alerts.Strategy.BloodPressureStrategy;
+import com.alerts.Strategy.BloodPressureTrendStrategy;
 import com.alerts.Strategy.ECGStrategy;
 import com.alerts.Strategy.HeartRateStrategy;
 import com.alerts.Strategy.OxygenSaturationStrategy;
+import com.alerts.Strategy.SaturationDropStrategy;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
 public class AlertGenerator {
     @SuppressWarnings("unused")
     private DataStorage dataStorage;
-    private List<Alert> alerts;
+    private final AlertStore alerts;
+    // Keeps alerts stored in one batch together, and the suppressor consistent with the store
+    private final Object storeLock = new Object();
     private List<AlertStrategy> strategies;
+    // The built-in strategies, which a rules file takes over from on its first load
+    private final Set<AlertStrategy> defaultStrategies = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Strategies per record type, so every record only reaches the strategies that handle its type
+    private volatile DispatchTable dispatchTable;
+    // Evaluation progress per patient; only records added after the evaluated ones are evaluated again
+    private final Map<Patient, Progress> watermarks = Collections.synchronizedMap(new WeakHashMap<>());
+    // Collapses repeated alerts when a suppression window is set
+    private volatile AlertSuppressor suppressor;
+    // Evaluation statistics per strategy, guarded by this generator
+    private final Map<AlertStrategy, StrategyStats> strategyStats = new IdentityHashMap<>();
+    // Name under which the statistics are registered with JMX, or null if they are not
+    private String statsMBeanName;
 
     public AlertGenerator(DataStorage dataStorage) {
+        this(dataStorage, new AlertStore());
+    }
+
+    /**
+     * Creates a generator that keeps its alerts in the given store.
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertStore alertStore) {
         this.dataStorage = dataStorage;
-        this.alerts = new ArrayList<>();
+        this.alerts = alertStore;
         this.strategies = new ArrayList<>();
         // Add strategies
         this.strategies.add(new BloodPressureStrategy());
+        this.strategies.add(new BloodPressureTrendStrategy());
         this.strategies.add(new HeartRateStrategy());
         this.strategies.add(new OxygenSaturationStrategy());
+        this.strategies.add(new SaturationDropStrategy());
         this.strategies.add(new ECGStrategy());
+        this.defaultStrategies.addAll(strategies);
+        this.dispatchTable = rebuildDispatchTable(strategies);
+    }
+
+    /**
+     * Adds a strategy that is evaluated after the existing ones.
+     */
+    public synchronized void addStrategy(AlertStrategy strategy) {
+        List<AlertStrategy> updated = new ArrayList<>(strategies);
+        updated.add(strategy);
+        strategies = updated;
+        dispatchTable = rebuildDispatchTable(updated);
+    }
+
+    /**
+     * Replaces all strategies at once. Evaluations in progress finish with the previous strategies.
+     */
+    public synchronized void setStrategies(List<AlertStrategy> replacement) {
+        List<AlertStrategy> updated = new ArrayList<>(replacement);
+        strategies = updated;
+        dispatchTable = rebuildDispatchTable(updated);
+    }
+
+    /**
+     * Replaces some strategies at once and keeps the others, such as strategies added with
+     * {@link #addStrategy}. The previous strategies and the built-in defaults are removed, and the
+     * replacement is evaluated ahead of the remaining strategies. Strategies in both lists stay
+     * registered with their state and statistics.
+     */
+    public synchronized void replaceStrategies(List<AlertStrategy> previous, List<AlertStrategy> replacement) {
+        Set<AlertStrategy> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(previous);
+        removed.addAll(defaultStrategies);
+        List<AlertStrategy> updated = new ArrayList<>(replacement);
+        for (AlertStrategy strategy : strategies) {
+            if (!removed.contains(strategy)) {
+                updated.add(strategy);
+            }
+        }
+        strategies = updated;
+        dispatchTable = rebuildDispatchTable(updated);
+    }
+
+    /**
+     * Returns the evaluation statistics of the current strategies, in evaluation order.
+     */
+    public synchronized List<StrategyStats> getStrategyStats() {
+        List<StrategyStats> stats = new ArrayList<>(strategies.size());
+        for (AlertStrategy strategy : strategies) {
+            stats.add(strategyStats.get(strategy));
+        }
+        return stats;
+    }
+
+    /**
+     * Returns one line of statistics per strategy, the most expensive strategy first.
+     */
+    public String dumpStrategyStats() {
+        List<StrategyStats> stats = getStrategyStats();
+        stats.sort(Comparator.comparingDouble(StrategyStats::getEstimatedTotalTimeMillis).reversed());
+        StringBuilder dump = new StringBuilder();
+        for (StrategyStats strategy : stats) {
+            dump.append(strategy).append(System.lineSeparator());
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Registers the statistics of every strategy, including strategies added later, as JMX beans under
+     * {@code com.alerts:type=StrategyStats,generator=<generatorName>,name=<strategy>}.
+     */
+    public synchronized void registerStrategyStats(String generatorName) {
+        unregisterStrategyStats();
+        statsMBeanName = generatorName;
+        for (StrategyStats stats : strategyStats.values()) {
+            registerMBean(stats);
+        }
+    }
+
+    public synchronized void unregisterStrategyStats() {
+        if (statsMBeanName == null) {
+            return;
+        }
+        for (StrategyStats stats : strategyStats.values()) {
+            unregisterMBean(stats);
+        }
+        statsMBeanName = null;
+    }
+
+    /**
+     * Keeps the statistics of strategies that remain and creates statistics for new ones.
+     */
+    private DispatchTable rebuildDispatchTable(List<AlertStrategy> updated) {
+        Map<AlertStrategy, StrategyStats> previous = new IdentityHashMap<>(strategyStats);
+        strategyStats.clear();
+        Map<String, Integer> nameCounts = new HashMap<>();
+        for (AlertStrategy strategy : updated) {
+            String simpleName = strategy.getClass().getSimpleName();
+            int ordinal = nameCounts.merge(simpleName, 1, Integer::sum);
+            StrategyStats stats = previous.remove(strategy);
+            if (stats == null) {
+                stats = new StrategyStats(ordinal == 1 ? simpleName : simpleName + "#" + ordinal);
+                registerMBean(stats);
+            }
+            strategyStats.put(strategy, stats);
+        }
+        for (StrategyStats removed : previous.values()) {
+            unregisterMBean(removed);
+        }
+        return new DispatchTable(updated, strategyStats);
+    }
+
+    private ObjectName mBeanName(StrategyStats stats) throws MalformedObjectNameException {
+        return new ObjectName("com.alerts:type=StrategyStats,generator=" + ObjectName.quote(statsMBeanName)
+                + ",name=" + ObjectName.quote(stats.getStrategyName()));
+    }
+
+    private void registerMBean(StrategyStats stats) {
+        if (statsMBeanName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = mBeanName(stats);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not register statistics for " + stats.getStrategyName() + ": " + e.getMessage());
+        }
+    }
+
+    private void unregisterMBean(StrategyStats stats) {
+        if (statsMBeanName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = mBeanName(stats);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not unregister statistics for " + stats.getStrategyName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Collapses alerts of the same patient and condition that follow each other within the given window,
+     * so only the first alert of every episode is stored. A window of zero disables suppression.
+     */
+    public void setSuppressionWindow(long cooldownMillis) {
+        synchronized (storeLock) {
+            suppressor = cooldownMillis > 0 ? new AlertSuppressor(cooldownMillis) : null;
+        }
     }
 
+    /**
+     * Evaluates the records of the patient that arrived since the previous evaluation.
+     * Records are counted in the order they were added, so late records and records sharing a
+     * timestamp with an evaluated one are still evaluated once.
+     */
     public void evaluateData(Patient patient) {
-        long currentTime = System.currentTimeMillis();
-        List<PatientRecord> records = patient.getRecords(0, currentTime);
+        store(evaluatePatient(patient));
+    }
 
-        for (PatientRecord record : records) {
-            for (AlertStrategy strategy : strategies) {
-                strategy.checkAlert(patient, record, alerts);
+    /**
+     * Evaluates several patients in parallel on the common fork/join pool.
+     * Alerts are stored in the order of the given patients, exactly as if they had been evaluated one by one.
+     */
+    public void evaluateAll(List<Patient> patients) {
+        storeAll(patients.parallelStream()
+                .map(this::evaluatePatient)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Evaluates several patients in parallel on the given pool.
+     * Alerts are stored in the order of the given patients, exactly as if they had been evaluated one by one.
+     */
+    public void evaluateAll(List<Patient> patients, ForkJoinPool pool) {
+        // A parallel stream started from inside a pool runs its tasks in that pool
+        storeAll(pool.submit(() -> patients.parallelStream()
+                .map(this::evaluatePatient)
+                .collect(Collectors.toList())).join());
+    }
+
+    /**
+     * Evaluates the new records of a patient and returns the raised alerts without storing them.
+     * Evaluations of the same patient are serialized, so concurrent calls from polling, the sweeper
+     * and {@link #evaluateAll} evaluate every record once and in order. Every tier has its own
+     * watermark, so a record that {@link #evaluateRecord} already evaluated in one tier is still
+     * evaluated here by the strategies of the other tier, and never twice by the same strategy.
+     * {@link #evaluateRecord} only waits for the records to be claimed, not for their evaluation;
+     * strategies guard their own per-patient state.
+     */
+    private List<Alert> evaluatePatient(Patient patient) {
+        Progress progress = progressOf(patient);
+        synchronized (progress.evaluation) {
+            int first;
+            List<PatientRecord> records;
+            int[] evaluated;
+            synchronized (progress) {
+                // Counting records rather than comparing timestamps keeps late and same-millisecond records
+                evaluated = progress.evaluated.clone();
+                first = Arrays.stream(evaluated).min().getAsInt();
+                records = patient.getRecordsSince(first);
+                progress.advanceAll(first + records.size());
+            }
+            if (records.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<Alert> raised = new ArrayList<>();
+            DispatchTable table = dispatchTable;
+            for (int i = 0; i < records.size(); i++) {
+                PatientRecord record = records.get(i);
+                for (Handler handler : table.handlersFor(record.getRecordType())) {
+                    // Skips the tiers that already evaluated the record
+                    if (first + i >= evaluated[handler.strategy.getTier().ordinal()]) {
+                        handler.check(patient, record, raised);
+                    }
+                }
             }
+            return raised;
         }
     }
 
+    private Progress progressOf(Patient patient) {
+        return watermarks.computeIfAbsent(patient, key -> new Progress());
+    }
+
+    /**
+     * Evaluates a single record as soon as it arrives, instead of polling the patient's history.
+     * Records of the same patient must be passed in order and from one thread at a time.
+     *
+     * @param index the position of the record among the patient's records, as returned by
+     *              {@link Patient#addRecord(PatientRecord)}
+     * @return the alerts raised by the record
+     */
+    public List<Alert> evaluateRecord(Patient patient, PatientRecord record, int index) {
+        List<Alert> raised = new ArrayList<>(0);
+        for (AlertTier tier : AlertTier.values()) {
+            evaluateRecord(patient, record, index, tier, raised);
+        }
+        return raised;
+    }
+
+    /**
+     * Evaluates a single record with the strategies of one tier only, unless that tier already
+     * evaluated it. Records of the same patient must be passed in order per tier.
+     */
+    void evaluateRecord(Patient patient, PatientRecord record, int index, AlertTier tier, List<Alert> raised) {
+        // Claims the record for the tier, so evaluateData does not evaluate it again in this tier
+        Progress progress = progressOf(patient);
+        synchronized (progress) {
+            if (!progress.claim(tier, index)) {
+                return;
+            }
+        }
+        int before = raised.size();
+        for (Handler handler : dispatchTable.handlersFor(record.getRecordType(), tier)) {
+            handler.check(patient, record, raised);
+        }
+        if (raised.size() > before) {
+            store(raised.subList(before, raised.size()));
+        }
+    }
+
+    private void store(List<Alert> raised) {
+        if (raised.isEmpty()) {
+            return;
+        }
+        synchronized (storeLock) {
+            AlertSuppressor current = suppressor;
+            for (Alert alert : raised) {
+                if (current == null) {
+                    alerts.add(alert);
+                } else if (current.offer(alert)) {
+                    Alert evicted = alerts.add(alert);
+                    if (evicted != null) {
+                        current.forget(evicted);
+                    }
+                }
+            }
+        }
+    }
+
+    private void storeAll(List<List<Alert>> raisedPerPatient) {
+        synchronized (storeLock) {
+            for (List<Alert> raised : raisedPerPatient) {
+                store(raised);
+            }
+        }
+    }
+
+    /**
+     * Forgets which records of the patient have been evaluated, so the next call to
+     * {@link #evaluateData(Patient)} evaluates the full history again.
+     */
+    public void resetWatermark(Patient patient) {
+        watermarks.remove(patient);
+    }
+
     public List<Alert> getAlerts() {
-        return new ArrayList<>(alerts);
+        return alerts.getAll();
+    }
+
+    /**
+     * Returns the store holding the alerts, for queries and subscriptions.
+     */
+    public AlertStore getAlertStore() {
+        return alerts;
+    }
+
+    /**
+     * Returns the stored alerts, with every alert that had suppressed repeats wrapped in a
+     * {@link RepeatedAlertDecorator} carrying the number of collapsed alerts.
+     */
+    public List<AlertInterface> getAlertSummaries() {
+        synchronized (storeLock) {
+            AlertSuppressor current = suppressor;
+            List<Alert> stored = alerts.getAll();
+            return current != null ? current.summarize(stored) : new ArrayList<>(stored);
+        }
+    }
+
+    /**
+     * The number of a patient's records claimed for evaluation so far, per tier, guarded by this
+     * object. Evaluations of the patient's history also hold {@code evaluation} while they run.
+     */
+    private static final class Progress {
+        private final Object evaluation = new Object();
+        private final int[] evaluated = new int[AlertTier.values().length];
+
+        /**
+         * Claims the record at the given position for a tier, unless the tier already passed it.
+         */
+        boolean claim(AlertTier tier, int index) {
+            if (index < evaluated[tier.ordinal()]) {
+                return false;
+            }
+            evaluated[tier.ordinal()] = index + 1;
+            return true;
+        }
+
+        void advanceAll(int count) {
+            for (int i = 0; i < evaluated.length; i++) {
+                evaluated[i] = Math.max(evaluated[i], count);
+            }
+        }
+    }
+
+    /**
+     * A strategy together with its statistics.
+     */
+    private static final class Handler {
+        private final AlertStrategy strategy;
+        private final StrategyStats stats;
+
+        Handler(AlertStrategy strategy, StrategyStats stats) {
+            this.strategy = strategy;
+            this.stats = stats;
+        }
+
+        void check(Patient patient, PatientRecord record, List<Alert> raised) {
+            int before = raised.size();
+            if (StrategyStats.shouldSample()) {
+                long start = System.nanoTime();
+                strategy.checkAlert(patient, record, raised);
+                stats.recordTime(System.nanoTime() - start);
+            } else {
+                strategy.checkAlert(patient, record, raised);
+            }
+            stats.recordInvocation(raised.size() - before);
+        }
+    }
+
+    /**
+     * Immutable mapping from record type to the strategies handling it, in registration order.
+     * Strategies without declared record types receive every record.
+     */
+    private static final class DispatchTable {
+        private static final Handler[] NONE = new Handler[0];
+
+        private final Map<String, Handler[]> byType = new HashMap<>();
+        private final Handler[] allTypes;
+        // The same handlers split by tier, indexed by the tier's ordinal
+        private final List<Map<String, Handler[]>> byTierAndType = new ArrayList<>();
+        private final Handler[][] allTypesByTier = new Handler[AlertTier.values().length][];
+
+        DispatchTable(List<AlertStrategy> strategies, Map<AlertStrategy, StrategyStats> stats) {
+            Set<String> types = new LinkedHashSet<>();
+            List<Handler> catchAll = new ArrayList<>();
+            for (AlertStrategy strategy : strategies) {
+                types.addAll(strategy.getRecordTypes());
+                if (strategy.getRecordTypes().isEmpty()) {
+                    catchAll.add(new Handler(strategy, stats.get(strategy)));
+                }
+            }
+            for (String type : types) {
+                List<Handler> handlers = new ArrayList<>();
+                for (AlertStrategy strategy : strategies) {
+                    if (strategy.getRecordTypes().isEmpty() || strategy.getRecordTypes().contains(type)) {
+                        handlers.add(new Handler(strategy, stats.get(strategy)));
+                    }
+                }
+                byType.put(type, handlers.toArray(new Handler[0]));
+            }
+            allTypes = catchAll.toArray(new Handler[0]);
+            for (AlertTier tier : AlertTier.values()) {
+                Map<String, Handler[]> tierByType = new HashMap<>();
+                for (Map.Entry<String, Handler[]> entry : byType.entrySet()) {
+                    tierByType.put(entry.getKey(), ofTier(entry.getValue(), tier));
+                }
+                byTierAndType.add(tierByType);
+                allTypesByTier[tier.ordinal()] = ofTier(allTypes, tier);
+            }
+        }
+
+        Handler[] handlersFor(String recordType) {
+            Handler[] handlers = byType.get(recordType);
+            return handlers != null ? handlers : allTypes;
+        }
+
+        Handler[] handlersFor(String recordType, AlertTier tier) {
+            Handler[] handlers = byTierAndType.get(tier.ordinal()).get(recordType);
+            return handlers != null ? handlers : allTypesByTier[tier.ordinal()];
+        }
+
+        private static Handler[] ofTier(Handler[] handlers, AlertTier tier) {
+            List<Handler> matching = new ArrayList<>();
+            for (Handler handler : handlers) {
+                if (handler.strategy.getTier() == tier) {
+                    matching.add(handler);
+                }
+            }
+            return matching.isEmpty() ? NONE : matching.toArray(new Handler[0]);
+        }
     }
 }
@@ -0,0 +1,553 @@
+package com.alerts;
+
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Decorator.RepeatedAlertDecorator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only binary log of alerts on disk, with an index by patient and time.
+ * <p>
+ * The directory holds {@code alerts.log}, a sequence of compact binary alert records, and
+ * {@code alerts.idx}, fixed-size entries of patient ID, timestamp and record offset. The index is
+ * also held in memory by patient, loaded when the log is opened, so a query for one patient only
+ * looks at that patient's entries and reads the matching records. Both files start
+ * with the same generation number; when they disagree after a crash, or the log holds records the
+ * index lacks, the index is rebuilt from the log. An incomplete record at the end of the log is cut
+ * off, together with index entries that point at or past it.
+ * <p>
+ * Compaction rewrites the log without alerts older than the retention period and merges repeats
+ * of the same patient and condition into one record with a repeat count and the timestamp of the
+ * newest repeat, so a merged record is kept and merged further as long as its newest repeat is.
+ * It runs without blocking appends, except for a short step at the end that copies newer records
+ * and renames the new files into place.
+ * <p>
+ * Appends are buffered. As a sink of an {@link AlertDispatcher}, the log flushes once a lane has
+ * delivered all queued alerts, so after a crash of the process at most the alerts of the batch in
+ * flight, or a buffer's worth under constant load, are lost. Callers of {@link #append} call
+ * {@link #flush} themselves. Flushing hands the data to the operating system without forcing it to
+ * the disk, so alerts written shortly before a power failure may still be lost.
+ */
+public class AlertLog implements AlertSink, Closeable {
+    public static final String LOG_FILE = "alerts.log";
+    public static final String INDEX_FILE = "alerts.idx";
+
+    private static final int LOG_MAGIC = 0x414C5254;
+    private static final int INDEX_MAGIC = 0x414C5849;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = 20;
+
+    private final Path logPath;
+    private final Path indexPath;
+    private long generation;
+    private DataOutputStream log;
+    private DataOutputStream index;
+    private long logLength;
+    // The index entries per patient ID, in log order
+    private Map<Integer, PatientEntries> entries = new HashMap<>();
+    private ScheduledExecutorService compactor;
+
+    /**
+     * Opens the log in the given directory, creating it if necessary, and recovers its index.
+     */
+    public AlertLog(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.logPath = directory.resolve(LOG_FILE);
+        this.indexPath = directory.resolve(INDEX_FILE);
+        recover();
+        openStreams();
+    }
+
+    /**
+     * Appends an alert. Alerts with suppressed repeats keep their repeat count.
+     */
+    public synchronized void append(AlertInterface alert) throws IOException {
+        int repeatCount = alert instanceof RepeatedAlertDecorator ? ((RepeatedAlertDecorator) alert).getRepeatCount() : 1;
+        LogRecord record = new LogRecord(alert.getPatientIdAsInt(), alert.getTimestamp(), repeatCount,
+                alert.getCondition(), alert.getPriority());
+        logLength = write(record, log, index, entries, logLength);
+    }
+
+    @Override
+    public void deliver(AlertInterface alert) {
+        try {
+            append(alert);
+        } catch (IOException e) {
+            System.err.println("Failed to append alert to " + logPath + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flushes the alerts appended since the last flush, so they are in the log of a later open.
+     */
+    @Override
+    public void endOfBatch() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Failed to flush alerts to " + logPath + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        log.flush();
+        index.flush();
+    }
+
+    /**
+     * Returns the logged alerts matching the patient and time range, ordered by timestamp.
+     * Alerts that stand for several merged repeats are wrapped in a {@link RepeatedAlertDecorator}
+     * and match by the timestamp of their first repeat. A query for one patient only looks at the
+     * index entries of that patient. The log's lock is only held to take a snapshot of the entries,
+     * so queries do not block appends while they read the records.
+     *
+     * @param patientId the patient ID, or {@code null} for any patient
+     * @param startTime the earliest alert timestamp, inclusive
+     * @param endTime   the latest alert timestamp, inclusive
+     */
+    public List<AlertInterface> query(Integer patientId, long startTime, long endTime) throws IOException {
+        List<PatientEntries> snapshot = new ArrayList<>();
+        RandomAccessFile file;
+        synchronized (this) {
+            flush();
+            // The entries end at the current log length, and appends never touch the snapshot's range
+            if (patientId == null) {
+                for (PatientEntries patientEntries : entries.values()) {
+                    snapshot.add(patientEntries.snapshot());
+                }
+            } else if (entries.containsKey(patientId)) {
+                snapshot.add(entries.get(patientId).snapshot());
+            }
+            // Opened under the lock, so a compaction that replaces the log afterwards does not affect it
+            file = new RandomAccessFile(logPath.toFile(), "r");
+        }
+        List<LogRecord> records = new ArrayList<>();
+        try (file) {
+            for (PatientEntries patientEntries : snapshot) {
+                for (int i = 0; i < patientEntries.size; i++) {
+                    long timestamp = patientEntries.timestamps[i];
+                    if (timestamp >= startTime && timestamp <= endTime) {
+                        file.seek(patientEntries.offsets[i]);
+                        records.add(LogRecord.readFrom(file));
+                    }
+                }
+            }
+        }
+        records.sort(Comparator.comparingLong(record -> record.timestamp));
+        List<AlertInterface> alerts = new ArrayList<>(records.size());
+        for (LogRecord record : records) {
+            alerts.add(record.toAlertInterface());
+        }
+        return alerts;
+    }
+
+    /**
+     * Adds the alerts logged at or after the given time to the store, oldest first.
+     * Call this before the store's alerts are dispatched to this log, or they are logged again.
+     *
+     * @return the number of loaded alerts
+     */
+    public int loadRecent(AlertStore alertStore, long startTime) throws IOException {
+        List<AlertInterface> recent = query(null, startTime, Long.MAX_VALUE);
+        for (AlertInterface alert : recent) {
+            alertStore.add(new Alert(alert.getPatientIdAsInt(), alert.getCondition(), alert.getTimestamp(), alert.getPriority()));
+        }
+        return recent.size();
+    }
+
+    /**
+     * Rewrites the log without alerts older than the given time, merging alerts of the same patient
+     * and condition that follow each other within the merge window into one record.
+     *
+     * @param retainAfter   alerts whose newest repeat is earlier are removed
+     * @param mergeWindowMs the largest gap between merged alerts, or 0 to merge nothing
+     */
+    public void compact(long retainAfter, long mergeWindowMs) throws IOException {
+        long snapshotEnd;
+        synchronized (this) {
+            flush();
+            snapshotEnd = logLength;
+        }
+        Path compactLog = logPath.resolveSibling(LOG_FILE + ".compact");
+        Path compactIndex = indexPath.resolveSibling(INDEX_FILE + ".compact");
+        long newGeneration = ThreadLocalRandom.current().nextLong();
+        DataOutputStream newLog = createFile(compactLog, LOG_MAGIC, newGeneration);
+        DataOutputStream newIndex = createFile(compactIndex, INDEX_MAGIC, newGeneration);
+        long[] newLength = {HEADER_SIZE};
+        Map<Integer, PatientEntries> newEntries = new HashMap<>();
+        try {
+            // Repeats still open for merging, per patient and condition
+            Map<String, LogRecord> open = new HashMap<>();
+            scan(logPath, HEADER_SIZE, snapshotEnd, (offset, record) -> {
+                if (record.lastTimestamp < retainAfter) {
+                    return;
+                }
+                String key = record.patientId + "\u0000" + record.condition;
+                LogRecord merged = open.get(key);
+                if (merged != null && mergeWindowMs > 0 && record.timestamp - merged.lastTimestamp <= mergeWindowMs) {
+                    merged.repeatCount += record.repeatCount;
+                    merged.lastTimestamp = Math.max(merged.lastTimestamp, record.lastTimestamp);
+                    return;
+                }
+                if (merged != null) {
+                    newLength[0] = write(merged, newLog, newIndex, newEntries, newLength[0]);
+                }
+                open.put(key, record);
+            });
+            List<LogRecord> remaining = new ArrayList<>(open.values());
+            remaining.sort(Comparator.comparingLong(record -> record.timestamp));
+            for (LogRecord record : remaining) {
+                newLength[0] = write(record, newLog, newIndex, newEntries, newLength[0]);
+            }
+
+            synchronized (this) {
+                flush();
+                // Alerts appended while compacting are kept as they are
+                scan(logPath, snapshotEnd, logLength, (offset, record) ->
+                        newLength[0] = write(record, newLog, newIndex, newEntries, newLength[0]));
+                newLog.close();
+                newIndex.close();
+                closeStreams();
+                boolean swapped = false;
+                try {
+                    // The index goes last, so a crash in between leaves mismatching generations and a rebuilt index
+                    Files.move(compactLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    Files.move(compactIndex, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    generation = newGeneration;
+                    logLength = newLength[0];
+                    entries = newEntries;
+                    swapped = true;
+                } finally {
+                    if (!swapped) {
+                        // Either file may have been replaced, so the state is read back from disk
+                        recover();
+                    }
+                    openStreams();
+                }
+            }
+        } finally {
+            newLog.close();
+            newIndex.close();
+            Files.deleteIfExists(compactLog);
+            Files.deleteIfExists(compactIndex);
+        }
+    }
+
+    /**
+     * Compacts the log periodically on a background thread, keeping the alerts of the retention period.
+     */
+    public synchronized void startCompaction(long retentionMs, long mergeWindowMs, long period, TimeUnit unit) {
+        if (compactor != null) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact(System.currentTimeMillis() - retentionMs, mergeWindowMs);
+            } catch (IOException e) {
+                System.err.println("Failed to compact " + logPath + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, period, period, unit);
+    }
+
+    public synchronized void stopCompaction() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            compactor = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopCompaction();
+        synchronized (this) {
+            closeStreams();
+        }
+    }
+
+    /**
+     * Makes the index match the log: creates missing files, drops an incomplete record at the end of
+     * the log together with index entries that point at or past it, indexes the records the index is
+     * missing and loads the index into memory.
+     */
+    private void recover() throws IOException {
+        if (!Files.exists(logPath) || Files.size(logPath) < HEADER_SIZE) {
+            generation = ThreadLocalRandom.current().nextLong();
+            createFile(logPath, LOG_MAGIC, generation).close();
+        }
+        generation = readHeader(logPath, LOG_MAGIC);
+
+        boolean indexValid = Files.exists(indexPath) && Files.size(indexPath) >= HEADER_SIZE
+                && readHeader(indexPath, INDEX_MAGIC) == generation;
+        if (!indexValid) {
+            createFile(indexPath, INDEX_MAGIC, generation).close();
+        }
+        long indexed = (Files.size(indexPath) - HEADER_SIZE) / INDEX_ENTRY_SIZE;
+
+        // Entries are in log order, so the valid ones end with the last entry whose record is complete
+        long scanFrom = HEADER_SIZE;
+        try (RandomAccessFile file = new RandomAccessFile(indexPath.toFile(), "r");
+             RandomAccessFile logFile = new RandomAccessFile(logPath.toFile(), "r")) {
+            for (; indexed > 0; indexed--) {
+                file.seek(HEADER_SIZE + (indexed - 1) * INDEX_ENTRY_SIZE + 12);
+                long lastOffset = file.readLong();
+                if (lastOffset < HEADER_SIZE || lastOffset >= logFile.length()) {
+                    continue;
+                }
+                try {
+                    logFile.seek(lastOffset);
+                    LogRecord.readFrom(logFile);
+                    scanFrom = logFile.getFilePointer();
+                    break;
+                } catch (EOFException e) {
+                    // The record was torn by a crash
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+            channel.truncate(HEADER_SIZE + indexed * INDEX_ENTRY_SIZE);
+        }
+        try (DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(indexPath, StandardOpenOption.APPEND)))) {
+            long end = scan(logPath, scanFrom, Long.MAX_VALUE, (offset, record) -> record.writeIndexEntry(indexOut, offset));
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                channel.truncate(end);
+            }
+            logLength = end;
+        }
+        entries = loadIndex(indexPath);
+    }
+
+    /**
+     * Reads the entries of an index file, grouped by patient ID.
+     */
+    private static Map<Integer, PatientEntries> loadIndex(Path path) throws IOException {
+        Map<Integer, PatientEntries> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.readFully(new byte[HEADER_SIZE]);
+            long count = (Files.size(path) - HEADER_SIZE) / INDEX_ENTRY_SIZE;
+            for (long i = 0; i < count; i++) {
+                int patientId = in.readInt();
+                long timestamp = in.readLong();
+                long offset = in.readLong();
+                loaded.computeIfAbsent(patientId, id -> new PatientEntries()).add(timestamp, offset);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes a record to a log and index, adds its entry to the in-memory index and returns the
+     * offset after the record.
+     */
+    private static long write(LogRecord record, DataOutputStream log, DataOutputStream index,
+                              Map<Integer, PatientEntries> entries, long offset) throws IOException {
+        int size = record.writeTo(log, index, offset);
+        entries.computeIfAbsent(record.patientId, id -> new PatientEntries()).add(record.timestamp, offset);
+        return offset + size;
+    }
+
+    private void openStreams() throws IOException {
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logPath, StandardOpenOption.APPEND)));
+        index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath, StandardOpenOption.APPEND)));
+    }
+
+    private void closeStreams() throws IOException {
+        if (log != null) {
+            log.close();
+            index.close();
+        }
+    }
+
+    private static DataOutputStream createFile(Path path, int magic, long generation) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(magic);
+        out.writeInt(VERSION);
+        out.writeLong(generation);
+        return out;
+    }
+
+    private static long readHeader(Path path, int magic) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != magic) {
+                throw new IOException("Not an alert log file: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported alert log version " + version + ": " + path);
+            }
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Reads the complete records between two offsets and returns the offset after the last one.
+     */
+    private static long scan(Path path, long start, long end, RecordVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(start);
+            InputStream stream = new BufferedInputStream(Channels.newInputStream(channel));
+            DataInputStream in = new DataInputStream(stream);
+            long offset = start;
+            while (offset < end) {
+                LogRecord record;
+                try {
+                    record = LogRecord.readFrom(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                visitor.visit(offset, record);
+                offset += record.size();
+            }
+            return offset;
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(long offset, LogRecord record) throws IOException;
+    }
+
+    /**
+     * The index entries of one patient, as parallel arrays of timestamps and record offsets. Entries
+     * are only appended, and a full array is replaced rather than changed, so a snapshot stays valid
+     * while more entries are added.
+     */
+    private static final class PatientEntries {
+        private long[] timestamps;
+        private long[] offsets;
+        private int size;
+
+        PatientEntries() {
+            this(new long[4], new long[4], 0);
+        }
+
+        private PatientEntries(long[] timestamps, long[] offsets, int size) {
+            this.timestamps = timestamps;
+            this.offsets = offsets;
+            this.size = size;
+        }
+
+        void add(long timestamp, long offset) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            timestamps[size] = timestamp;
+            offsets[size] = offset;
+            size++;
+        }
+
+        PatientEntries snapshot() {
+            return new PatientEntries(timestamps, offsets, size);
+        }
+    }
+
+    /**
+     * One logged alert: patient ID, timestamp, timestamp of the newest merged repeat, repeat count,
+     * then condition and priority as length-prefixed UTF-8.
+     */
+    private static final class LogRecord {
+        private final int patientId;
+        private final long timestamp;
+        private int repeatCount;
+        private final String condition;
+        private final String priority;
+        private final byte[] conditionBytes;
+        private final byte[] priorityBytes;
+        // Timestamp of the newest merged repeat, which decides retention and further merging
+        private long lastTimestamp;
+
+        LogRecord(int patientId, long timestamp, int repeatCount, String condition, String priority) {
+            this(patientId, timestamp, timestamp, repeatCount, condition, priority);
+        }
+
+        LogRecord(int patientId, long timestamp, long lastTimestamp, int repeatCount, String condition, String priority) {
+            this.patientId = patientId;
+            this.timestamp = timestamp;
+            this.repeatCount = repeatCount;
+            this.condition = condition;
+            this.priority = priority;
+            this.conditionBytes = condition.getBytes(StandardCharsets.UTF_8);
+            this.priorityBytes = priority.getBytes(StandardCharsets.UTF_8);
+            this.lastTimestamp = lastTimestamp;
+        }
+
+        static LogRecord readFrom(DataInput in) throws IOException {
+            int patientId = in.readInt();
+            long timestamp = in.readLong();
+            long lastTimestamp = in.readLong();
+            int repeatCount = in.readInt();
+            byte[] condition = new byte[in.readUnsignedShort()];
+            in.readFully(condition);
+            byte[] priority = new byte[in.readUnsignedShort()];
+            in.readFully(priority);
+            return new LogRecord(patientId, timestamp, lastTimestamp, repeatCount,
+                    new String(condition, StandardCharsets.UTF_8), new String(priority, StandardCharsets.UTF_8));
+        }
+
+        int size() {
+            return 4 + 8 + 8 + 4 + 2 + conditionBytes.length + 2 + priorityBytes.length;
+        }
+
+        /**
+         * Writes the record to the log and its entry to the index, and returns the record size.
+         */
+        int writeTo(DataOutputStream log, DataOutputStream index, long offset) throws IOException {
+            log.writeInt(patientId);
+            log.writeLong(timestamp);
+            log.writeLong(lastTimestamp);
+            log.writeInt(repeatCount);
+            log.writeShort(conditionBytes.length);
+            log.write(conditionBytes);
+            log.writeShort(priorityBytes.length);
+            log.write(priorityBytes);
+            writeIndexEntry(index, offset);
+            return size();
+        }
+
+        void writeIndexEntry(DataOutputStream index, long offset) throws IOException {
+            index.writeInt(patientId);
+            index.writeLong(timestamp);
+            index.writeLong(offset);
+        }
+
+        AlertInterface toAlertInterface() {
+            Alert alert = new Alert(patientId, condition, timestamp, priority);
+            return repeatCount > 1 ? new RepeatedAlertDecorator(alert, repeatCount) : alert;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.alerts;
+
+import com.alerts.Decorator.AlertInterface;
+
+/**
+ * Destination of dispatched alerts, such as the console, a file or a WebSocket.
+ * Sinks are called from the dispatcher's lane threads, possibly from two threads at the same time.
+ */
+public interface AlertSink {
+    void deliver(AlertInterface alert);
+
+    /**
+     * Called when a lane has delivered every queued alert, before it waits for more. Sinks that
+     * buffer their output flush it here, so a burst of alerts is written out once rather than per alert.
+     */
+    default void endOfBatch() {
+    }
+}
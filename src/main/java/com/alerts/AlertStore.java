@@ -0,0 +1,234 @@
+package com.alerts;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded store of raised alerts, indexed by patient, condition, priority and time.
+ * <p>
+ * Alerts are kept in a ring buffer of fixed capacity; once it is full, every new alert evicts the
+ * oldest one. Queries are answered from the smallest matching index and a time range lookup, so they
+ * never scan the whole store. Subscribers are notified of every added alert.
+ */
+public class AlertStore {
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    // Orders entries by alert timestamp, and alerts with equal timestamps by insertion
+    private static final Comparator<Entry> TIME_ORDER =
+            Comparator.comparingLong((Entry entry) -> entry.timestamp).thenComparingLong(entry -> entry.sequence);
+
+    private final Entry[] ring;
+    private int head;
+    private int size;
+    private long nextSequence;
+
+    private final NavigableSet<Entry> byTime = new TreeSet<>(TIME_ORDER);
+    private final Map<Integer, NavigableSet<Entry>> byPatient = new HashMap<>();
+    private final Map<String, NavigableSet<Entry>> byCondition = new HashMap<>();
+    private final Map<String, NavigableSet<Entry>> byPriority = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Consumer<Alert>> subscribers = new CopyOnWriteArrayList<>();
+
+    public AlertStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the largest number of alerts kept at the same time
+     */
+    public AlertStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.ring = new Entry[capacity];
+    }
+
+    /**
+     * Adds an alert, evicting the oldest alert if the store is full, and notifies the subscribers.
+     *
+     * @return the evicted alert, or {@code null} if the store was not full
+     */
+    public Alert add(Alert alert) {
+        Alert evicted = null;
+        lock.writeLock().lock();
+        try {
+            if (size == ring.length) {
+                evicted = evictOldest();
+            }
+            Entry entry = new Entry(alert, nextSequence++);
+            ring[(head + size) % ring.length] = entry;
+            size++;
+            byTime.add(entry);
+            index(byPatient, alert.getPatientIdAsInt(), entry);
+            index(byCondition, alert.getCondition(), entry);
+            index(byPriority, alert.getPriority(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Consumer<Alert> subscriber : subscribers) {
+            try {
+                subscriber.accept(alert);
+            } catch (RuntimeException e) {
+                System.err.println("Alert subscriber failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the alerts matching all given criteria, ordered by timestamp.
+     *
+     * @param patientId the patient ID, or {@code null} for any patient
+     * @param condition the condition, or {@code null} for any condition
+     * @param priority  the priority, or {@code null} for any priority
+     * @param startTime the earliest alert timestamp, inclusive
+     * @param endTime   the latest alert timestamp, inclusive
+     */
+    public List<Alert> query(Integer patientId, String condition, String priority, long startTime, long endTime) {
+        List<Alert> result = new ArrayList<>();
+        if (startTime > endTime) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> candidates = byTime;
+            candidates = smaller(candidates, patientId == null ? null : byPatient.getOrDefault(patientId, emptySet()));
+            candidates = smaller(candidates, condition == null ? null : byCondition.getOrDefault(condition, emptySet()));
+            candidates = smaller(candidates, priority == null ? null : byPriority.getOrDefault(priority, emptySet()));
+
+            Entry from = new Entry(startTime, Long.MIN_VALUE);
+            Entry to = new Entry(endTime, Long.MAX_VALUE);
+            for (Entry entry : candidates.subSet(from, true, to, true)) {
+                Alert alert = entry.alert;
+                if ((patientId == null || patientId == alert.getPatientIdAsInt())
+                        && (condition == null || condition.equals(alert.getCondition()))
+                        && (priority == null || priority.equals(alert.getPriority()))) {
+                    result.add(alert);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns all stored alerts in the order they were added.
+     */
+    public List<Alert> getAll() {
+        lock.readLock().lock();
+        try {
+            List<Alert> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(ring[(head + i) % ring.length].alert);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Registers a subscriber that receives every alert added from now on, on the adding thread.
+     */
+    public void subscribe(Consumer<Alert> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<Alert> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                ring[(head + i) % ring.length] = null;
+            }
+            head = 0;
+            size = 0;
+            byTime.clear();
+            byPatient.clear();
+            byCondition.clear();
+            byPriority.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Alert evictOldest() {
+        Entry oldest = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        byTime.remove(oldest);
+        unindex(byPatient, oldest.alert.getPatientIdAsInt(), oldest);
+        unindex(byCondition, oldest.alert.getCondition(), oldest);
+        unindex(byPriority, oldest.alert.getPriority(), oldest);
+        return oldest.alert;
+    }
+
+    private static <K> void index(Map<K, NavigableSet<Entry>> index, K key, Entry entry) {
+        index.computeIfAbsent(key, k -> new TreeSet<>(TIME_ORDER)).add(entry);
+    }
+
+    private static <K> void unindex(Map<K, NavigableSet<Entry>> index, K key, Entry entry) {
+        NavigableSet<Entry> entries = index.get(key);
+        if (entries != null) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static NavigableSet<Entry> smaller(NavigableSet<Entry> current, NavigableSet<Entry> candidate) {
+        return candidate != null && candidate.size() < current.size() ? candidate : current;
+    }
+
+    private static NavigableSet<Entry> emptySet() {
+        return new TreeSet<>(TIME_ORDER);
+    }
+
+    private static final class Entry {
+        private final Alert alert;
+        private final long timestamp;
+        private final long sequence;
+
+        Entry(Alert alert, long sequence) {
+            this.alert = alert;
+            this.timestamp = alert.getTimestamp();
+            this.sequence = sequence;
+        }
+
+        // Range bound used for time lookups
+        Entry(long timestamp, long sequence) {
+            this.alert = null;
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Evaluates alerts for every patient that appears in a batch of stored records.
+ * Requests one batch at a time, so slow evaluation throttles the publisher.
+ */
+public class AlertSubscriber implements Flow.Subscriber<List<PatientRecord>> {
+    private final AlertGenerator alertGenerator;
+    private final DataStorage dataStorage;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    public AlertSubscriber(AlertGenerator alertGenerator, DataStorage dataStorage) {
+        this.alertGenerator = alertGenerator;
+        this.dataStorage = dataStorage;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<PatientRecord> batch) {
+        Set<Integer> patientIds = new LinkedHashSet<>();
+        for (PatientRecord record : batch) {
+            patientIds.add(record.getPatientId());
+        }
+        for (int patientId : patientIds) {
+            Patient patient = dataStorage.getPatient(patientId);
+            if (patient != null) {
+                alertGenerator.evaluateData(patient);
+            }
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        completion.complete(null);
+    }
+
+    /**
+     * Returns a future that completes when the publisher has completed.
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+}
@@ -0,0 +1,102 @@
+package com.alerts;
+
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Decorator.RepeatedAlertDecorator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses repeated alerts of the same patient and condition into episodes.
+ * <p>
+ * An alert that follows the previous alert of the same patient and condition within the cooldown
+ * window only increments the repeat count of the open episode; otherwise it starts a new episode.
+ * Cooldowns are measured on alert timestamps, so replayed data is suppressed the same way as live data.
+ */
+public class AlertSuppressor {
+    private final long cooldownMillis;
+    // Open episode per patient ID and condition
+    private final Map<Integer, Map<String, Episode>> openEpisodes = new HashMap<>();
+    // Every episode by its first alert, to report repeat counts for stored alerts
+    private final Map<Alert, Episode> episodes = new IdentityHashMap<>();
+
+    /**
+     * @param cooldownMillis the largest gap between two alerts of the same episode, in milliseconds
+     */
+    public AlertSuppressor(long cooldownMillis) {
+        if (cooldownMillis <= 0) {
+            throw new IllegalArgumentException("Cooldown must be positive: " + cooldownMillis);
+        }
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    public long getCooldownMillis() {
+        return cooldownMillis;
+    }
+
+    /**
+     * Offers an alert to the suppressor.
+     *
+     * @return {@code true} if the alert starts a new episode and must be kept,
+     *         {@code false} if it was counted as a repeat of an open episode
+     */
+    public synchronized boolean offer(Alert alert) {
+        Map<String, Episode> byCondition =
+                openEpisodes.computeIfAbsent(alert.getPatientIdAsInt(), id -> new HashMap<>());
+        Episode episode = byCondition.get(alert.getCondition());
+        if (episode != null && alert.getTimestamp() - episode.lastTimestamp <= cooldownMillis) {
+            episode.repeatCount++;
+            episode.lastTimestamp = Math.max(episode.lastTimestamp, alert.getTimestamp());
+            return false;
+        }
+        episode = new Episode(alert.getTimestamp());
+        byCondition.put(alert.getCondition(), episode);
+        episodes.put(alert, episode);
+        return true;
+    }
+
+    /**
+     * Returns how many alerts were collapsed into the episode started by the given alert.
+     *
+     * @return the repeat count, or 1 if the alert did not start an episode
+     */
+    public synchronized int getRepeatCount(Alert alert) {
+        Episode episode = episodes.get(alert);
+        return episode != null ? episode.repeatCount : 1;
+    }
+
+    /**
+     * Forgets the episode started by the given alert, once the alert is no longer stored.
+     */
+    public synchronized void forget(Alert alert) {
+        episodes.remove(alert);
+    }
+
+    /**
+     * Returns the given alerts with every repeated alert wrapped in a {@link RepeatedAlertDecorator}.
+     */
+    public synchronized List<AlertInterface> summarize(List<Alert> alerts) {
+        List<AlertInterface> summaries = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            Episode episode = episodes.get(alert);
+            if (episode != null && episode.repeatCount > 1) {
+                summaries.add(new RepeatedAlertDecorator(alert, episode.repeatCount));
+            } else {
+                summaries.add(alert);
+            }
+        }
+        return summaries;
+    }
+
+    private static final class Episode {
+        private int repeatCount = 1;
+        private long lastTimestamp;
+
+        Episode(long timestamp) {
+            this.lastTimestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.DirtyPatientSet;
+import com.data_management.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically evaluates the patients that received records since the previous sweep.
+ * Patients without new records are never visited, so a sweep costs work proportional to the
+ * number of patients written to, not to the number of patients in the storage.
+ */
+public class AlertSweeper {
+    private final AlertGenerator alertGenerator;
+    private final DataStorage dataStorage;
+    private final long period;
+    private final TimeUnit unit;
+    private DirtyPatientSet dirtyPatients;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param alertGenerator the generator evaluating the patients
+     * @param dataStorage    the storage whose writes are tracked
+     * @param period         the time between the end of a sweep and the start of the next one
+     * @param unit           the unit of the period
+     */
+    public AlertSweeper(AlertGenerator alertGenerator, DataStorage dataStorage, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        this.alertGenerator = alertGenerator;
+        this.dataStorage = dataStorage;
+        this.period = period;
+        this.unit = unit;
+    }
+
+    /**
+     * Starts tracking writes and sweeping at the configured cadence.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        dirtyPatients = dataStorage.trackDirtyPatients();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        dataStorage.untrackDirtyPatients(dirtyPatients);
+        dirtyPatients = null;
+    }
+
+    /**
+     * Evaluates the patients that received records since the previous sweep.
+     *
+     * @return the number of evaluated patients
+     */
+    public int sweep() {
+        DirtyPatientSet current;
+        synchronized (this) {
+            current = dirtyPatients;
+        }
+        if (current == null || current.isEmpty()) {
+            return 0;
+        }
+        List<Patient> patients = new ArrayList<>();
+        for (int patientId : current.drain()) {
+            Patient patient = dataStorage.getPatient(patientId);
+            if (patient != null) {
+                patients.add(patient);
+            }
+        }
+        if (patients.size() == 1) {
+            alertGenerator.evaluateData(patients.get(0));
+        } else if (!patients.isEmpty()) {
+            alertGenerator.evaluateAll(patients);
+        }
+        return patients.size();
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            System.err.println("Alert sweep failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -12,6 +12,11 @@ public abstract class AlertDecorator implements AlertInterface {
         return decoratedAlert.getPatientId();
     }
 
+    @Override
+    public int getPatientIdAsInt() {
+        return decoratedAlert.getPatientIdAsInt();
+    }
+
     @Override
     public String getCondition() {
         return decoratedAlert.getCondition();
@@ -2,6 +2,7 @@ package com.alerts.Decorator;
 
 public interface AlertInterface {
     String getPatientId();
+    int getPatientIdAsInt();
     String getCondition();
     long getTimestamp();
     String getPriority();
@@ -14,6 +14,11 @@ public class RepeatedAlertDecorator implements AlertInterface {
         return decoratedAlert.getPatientId();
     }
 
+    @Override
+    public int getPatientIdAsInt() {
+        return decoratedAlert.getPatientIdAsInt();
+    }
+
     @Override
     public String getCondition() {
         return decoratedAlert.getCondition();
@@ -29,6 +34,10 @@ public class RepeatedAlertDecorator implements AlertInterface {
         return decoratedAlert.getPriority();
     }
 
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
     @Override
     public String toString() {
         return String.format("%s (Repeated %d times)", decoratedAlert.toString(), repeatCount);
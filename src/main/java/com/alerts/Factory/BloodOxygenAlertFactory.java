@@ -1,10 +1,18 @@
 package com.alerts.Factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertConditions;
 
 public class BloodOxygenAlertFactory implements AlertFactory {
+    private static final BloodOxygenAlertFactory INSTANCE = new BloodOxygenAlertFactory();
+
+    // Factories are stateless, so strategies share one instance
+    public static BloodOxygenAlertFactory getInstance() {
+        return INSTANCE;
+    }
+
     @Override
     public Alert createAlert(int patientId, String condition, long timestamp) {
-        return new Alert(patientId, condition, timestamp, "High");
+        return new Alert(patientId, condition, timestamp, AlertConditions.PRIORITY_HIGH);
     }
 }
@@ -1,11 +1,19 @@
 package com.alerts.Factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertConditions;
 
 
 public class BloodPressureAlertFactory implements AlertFactory {
+    private static final BloodPressureAlertFactory INSTANCE = new BloodPressureAlertFactory();
+
+    // Factories are stateless, so strategies share one instance
+    public static BloodPressureAlertFactory getInstance() {
+        return INSTANCE;
+    }
+
     @Override
     public Alert createAlert(int patientId, String condition, long timestamp) {
-        return new Alert(patientId, condition, timestamp, "High");
+        return new Alert(patientId, condition, timestamp, AlertConditions.PRIORITY_HIGH);
     }
 }
@@ -1,11 +1,19 @@
 package com.alerts.Factory;
 
 import com.alerts.Alert;
+import com.alerts.AlertConditions;
 
 
 public class ECGAlertFactory implements AlertFactory {
+    private static final ECGAlertFactory INSTANCE = new ECGAlertFactory();
+
+    // Factories are stateless, so strategies share one instance
+    public static ECGAlertFactory getInstance() {
+        return INSTANCE;
+    }
+
     @Override
     public Alert createAlert(int patientId, String condition, long timestamp) {
-        return new Alert(patientId, condition, timestamp, "High");
+        return new Alert(patientId, condition, timestamp, AlertConditions.PRIORITY_HIGH);
     }
 }
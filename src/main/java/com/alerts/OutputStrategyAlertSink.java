@@ -0,0 +1,24 @@
+package com.alerts;
+
+import com.alerts.Decorator.AlertInterface;
+import com.cardio_generator.outputs.OutputStrategy;
+
+/**
+ * Delivers alerts through an {@link OutputStrategy}, using the label "Alert" and the condition and
+ * priority as data, so alerts reach the same console, file, TCP or WebSocket outputs as the readings.
+ */
+public class OutputStrategyAlertSink implements AlertSink {
+    public static final String LABEL = "Alert";
+
+    private final OutputStrategy outputStrategy;
+
+    public OutputStrategyAlertSink(OutputStrategy outputStrategy) {
+        this.outputStrategy = outputStrategy;
+    }
+
+    @Override
+    public void deliver(AlertInterface alert) {
+        outputStrategy.output(alert.getPatientIdAsInt(), alert.getTimestamp(), LABEL,
+                alert.getCondition() + " (" + alert.getPriority() + ")");
+    }
+}
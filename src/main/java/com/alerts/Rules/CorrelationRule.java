@@ -0,0 +1,176 @@
+package com.alerts.Rules;
+
+import com.alerts.Alert;
+import com.alerts.Strategy.AlertStrategy;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts when readings of several signals match their clauses within one window.
+ * <p>
+ * In {@code all} mode every clause must have matched within the window, in any order; the state per
+ * patient is the timestamp of the most recent match of every clause. In {@code sequence} mode the
+ * clauses must have matched in the order they are listed, ending with the last one, and the state per
+ * clause is the latest start of a matched prefix of the clauses that ends with that clause. A later
+ * start is always as good as an earlier one, so one value per clause covers every interleaving of
+ * readings, and both modes are updated in O(clauses) per reading. A patient's state is dropped once
+ * all of it is older than the window. Readings of one patient are expected in timestamp order.
+ */
+final class CorrelationRule implements AlertStrategy {
+    private static final long NO_MATCH = Long.MIN_VALUE;
+
+    private final Set<String> recordTypes;
+    private final String condition;
+    private final String priority;
+    private final Clause[] clauses;
+    private final boolean sequence;
+    private final long windowMs;
+
+    private final ConcurrentHashMap<Integer, State> lastMatches = new ConcurrentHashMap<>();
+
+    CorrelationRule(String condition, String priority, List<Clause> clauses, boolean sequence, long windowMs) {
+        Set<String> types = new LinkedHashSet<>();
+        for (Clause clause : clauses) {
+            types.add(clause.signal);
+        }
+        this.recordTypes = Set.copyOf(types);
+        this.condition = condition;
+        this.priority = priority;
+        this.clauses = clauses.toArray(new Clause[0]);
+        this.sequence = sequence;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        boolean matched = false;
+        for (Clause clause : clauses) {
+            matched |= clause.matches(record);
+        }
+        while (true) {
+            State state = matched
+                    ? lastMatches.computeIfAbsent(record.getPatientId(), id -> new State(clauses.length))
+                    : lastMatches.get(record.getPatientId());
+            if (state == null) {
+                return;
+            }
+            synchronized (state) {
+                if (state.evicted) {
+                    // Evicted by another thread between the lookup and the lock
+                    continue;
+                }
+                boolean satisfied = sequence ? updateSequence(state.matches, record) : updateAll(state.matches, record);
+                if (satisfied) {
+                    alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(), priority));
+                }
+                if (isExpired(state.matches, record.getTimestamp())) {
+                    state.evicted = true;
+                    lastMatches.remove(record.getPatientId(), state);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+
+    /**
+     * Records the matches of the reading and checks that every clause matched within the window.
+     */
+    private boolean updateAll(long[] matches, PatientRecord record) {
+        long timestamp = record.getTimestamp();
+        boolean matched = false;
+        for (int i = 0; i < clauses.length; i++) {
+            if (clauses[i].matches(record)) {
+                matches[i] = timestamp;
+                matched = true;
+            }
+        }
+        if (!matched) {
+            return false;
+        }
+        for (long match : matches) {
+            if (match == NO_MATCH || Math.abs(timestamp - match) > windowMs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extends the matched prefixes with the reading and checks whether it completes the sequence
+     * within the window. Clauses are visited from last to first, so one reading never extends a
+     * prefix it just started.
+     */
+    private boolean updateSequence(long[] prefixStarts, PatientRecord record) {
+        long timestamp = record.getTimestamp();
+        long windowStart = timestamp - windowMs;
+        boolean completed = false;
+        for (int i = clauses.length - 1; i >= 0; i--) {
+            if (!clauses[i].matches(record)) {
+                continue;
+            }
+            if (i == 0) {
+                prefixStarts[0] = timestamp;
+            } else if (prefixStarts[i - 1] != NO_MATCH && prefixStarts[i - 1] >= windowStart) {
+                prefixStarts[i] = prefixStarts[i - 1];
+                completed |= i == clauses.length - 1;
+            }
+        }
+        return completed;
+    }
+
+    private boolean isExpired(long[] matches, long timestamp) {
+        for (long match : matches) {
+            if (match != NO_MATCH && match >= timestamp - windowMs) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The matches of one patient: timestamps of the last match per clause, or prefix starts in sequence mode.
+     */
+    private static final class State {
+        private final long[] matches;
+        private boolean evicted;
+
+        State(int clauses) {
+            matches = new long[clauses];
+            Arrays.fill(matches, NO_MATCH);
+        }
+    }
+
+    /**
+     * A comparison of one signal against a limit, such as {@code Systolic<90}.
+     */
+    static final class Clause {
+        private final String signal;
+        private final boolean below;
+        private final double limit;
+
+        Clause(String signal, boolean below, double limit) {
+            this.signal = signal;
+            this.below = below;
+            this.limit = limit;
+        }
+
+        boolean matches(PatientRecord record) {
+            if (!signal.equals(record.getRecordType())) {
+                return false;
+            }
+            double value = record.getMeasurementValue();
+            return below ? value < limit : value > limit;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.alerts.Rules;
+
+import com.alerts.Alert;
+import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.ReadingWindow;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts when a reading is at least a given amount below the highest reading inside the window.
+ * The window maximum is kept per patient in a monotonic deque, in amortized O(1) per reading.
+ */
+final class DropRule implements AlertStrategy {
+    private final Set<String> recordTypes;
+    private final String condition;
+    private final String priority;
+    private final double amount;
+    private final long windowMs;
+
+    private final ConcurrentHashMap<Integer, ReadingWindow> windows = new ConcurrentHashMap<>();
+
+    DropRule(String signal, String condition, String priority, double amount, long windowMs) {
+        this.recordTypes = Set.of(signal);
+        this.condition = condition;
+        this.priority = priority;
+        this.amount = amount;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        ReadingWindow window = windows.computeIfAbsent(record.getPatientId(), id -> new ReadingWindow());
+        double peak;
+        synchronized (window) {
+            window.evictBefore(record.getTimestamp() - windowMs);
+            peak = window.addKeepingMaximum(record.getTimestamp(), record.getMeasurementValue());
+        }
+        if (peak - record.getMeasurementValue() >= amount) {
+            alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(), priority));
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.alerts.Rules;
+
+import com.alerts.AlertGenerator;
+import com.alerts.Strategy.AlertStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the strategies of an {@link AlertGenerator} in sync with a rules file.
+ * <p>
+ * Reloading compiles the complete file first and then swaps the generator's strategies in one step,
+ * so evaluation never waits for a reload and never sees a partially loaded rule set. A file that
+ * fails to compile leaves the current rules in place; the watcher reports it once and tries again only
+ * after the file changes. Rules that did not change keep their state
+ * across a reload, and strategies added to the generator outside the rules file are kept as well.
+ */
+public class RuleEngine {
+    private final AlertGenerator alertGenerator;
+    private final Path rulesFile;
+    private volatile List<AlertStrategy> rules = List.of();
+    // The current rules by their definition, so unchanged rules are reused on reload
+    private Map<String, AlertStrategy> compiledRules = Map.of();
+    private FileTime loadedModified;
+    // The modification time of the file that last failed to load, so it is not retried until it changes
+    private FileTime failedModified;
+    private boolean failed;
+    private ScheduledExecutorService watcher;
+
+    public RuleEngine(AlertGenerator alertGenerator, Path rulesFile) {
+        this.alertGenerator = alertGenerator;
+        this.rulesFile = rulesFile;
+    }
+
+    /**
+     * Compiles the rules file and replaces the generator's previous rules, and its built-in
+     * strategies, with the rules of the file.
+     *
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public synchronized void reload() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(rulesFile);
+        Map<String, AlertStrategy> compiled = RuleLoader.load(rulesFile, compiledRules);
+        List<AlertStrategy> updated = List.copyOf(compiled.values());
+        alertGenerator.replaceStrategies(rules, updated);
+        compiledRules = compiled;
+        rules = updated;
+        loadedModified = modified;
+        failedModified = null;
+        failed = false;
+    }
+
+    /**
+     * Checks the rules file for changes periodically and reloads it when it was modified.
+     */
+    public synchronized void startWatching(long period, TimeUnit unit) {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-engine-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfModified, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    public List<AlertStrategy> getRules() {
+        return rules;
+    }
+
+    private void reloadIfModified() {
+        FileTime modified = null;
+        try {
+            modified = Files.getLastModifiedTime(rulesFile);
+            synchronized (this) {
+                if (modified.equals(loadedModified) || modified.equals(failedModified)) {
+                    return;
+                }
+            }
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            synchronized (this) {
+                boolean reported = failed && Objects.equals(modified, failedModified);
+                failedModified = modified;
+                failed = true;
+                if (reported) {
+                    return;
+                }
+            }
+            System.err.println("Failed to reload alert rules from " + rulesFile + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
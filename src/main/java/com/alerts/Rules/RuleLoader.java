@@ -0,0 +1,221 @@
+package com.alerts.Rules;
+
+import com.alerts.AlertConditions;
+import com.alerts.Strategy.AlertStrategy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Compiles alert rules from a properties file into {@link AlertStrategy} evaluators.
+ * <p>
+ * The {@code rules} key lists the rule names in evaluation order. Every rule is configured by keys
+ * {@code rule.<name>.<key>}:
+ * <ul>
+ *     <li>{@code type}: {@code threshold}, {@code trend}, {@code drop} or {@code correlation}</li>
+ *     <li>{@code signal}: the record type the rule evaluates, e.g. {@code HeartRate}; not used by
+ *     correlation rules</li>
+ *     <li>{@code condition}: the condition of raised alerts</li>
+ *     <li>{@code priority}: the priority of raised alerts, {@code High} by default</li>
+ *     <li>threshold rules: {@code above} and/or {@code below}</li>
+ *     <li>trend rules: {@code direction} ({@code increasing} or {@code decreasing}), {@code readings}
+ *     (3 by default), {@code step} and {@code window} in milliseconds</li>
+ *     <li>drop rules: {@code amount} and {@code window} in milliseconds</li>
+ *     <li>correlation rules: {@code when}, clauses separated by {@code ;} such as
+ *     {@code Systolic<90;Saturation<92}, {@code mode} ({@code all} by default, or {@code sequence})
+ *     and {@code window} in milliseconds</li>
+ * </ul>
+ * Every rule is checked and compiled when loaded, so a broken file is rejected as a whole. When a file
+ * is reloaded, rules whose definition did not change keep their compiled instance, and with it the
+ * readings their windows hold.
+ */
+public final class RuleLoader {
+
+    private RuleLoader() {
+    }
+
+    /**
+     * Loads and compiles the rules of a properties file.
+     *
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public static List<AlertStrategy> load(Path path) throws IOException {
+        return new ArrayList<>(load(path, Map.of()).values());
+    }
+
+    /**
+     * Loads the rules of a properties file, reusing previously compiled rules whose definition is unchanged.
+     *
+     * @param previous the rules of the previous load, as returned by this method
+     * @return the rules by their definition, in evaluation order
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public static Map<String, AlertStrategy> load(Path path, Map<String, AlertStrategy> previous) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return compile(properties, previous);
+    }
+
+    /**
+     * Compiles the rules defined by the given properties.
+     *
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public static List<AlertStrategy> compile(Properties properties) {
+        return new ArrayList<>(compile(properties, Map.of()).values());
+    }
+
+    /**
+     * Compiles the rules defined by the given properties, reusing previously compiled rules whose
+     * definition is unchanged.
+     *
+     * @param previous the rules of a previous compilation, as returned by this method
+     * @return the rules by their definition, in evaluation order
+     * @throws IllegalArgumentException if a rule is invalid
+     */
+    public static Map<String, AlertStrategy> compile(Properties properties, Map<String, AlertStrategy> previous) {
+        Map<String, AlertStrategy> rules = new LinkedHashMap<>();
+        String names = properties.getProperty("rules", "").trim();
+        if (names.isEmpty()) {
+            return rules;
+        }
+        for (String name : names.split(",")) {
+            String definition = definition(name.trim(), properties);
+            if (rules.containsKey(definition)) {
+                throw new IllegalArgumentException("Rule " + name.trim() + " is listed more than once");
+            }
+            AlertStrategy rule = previous.get(definition);
+            rules.put(definition, rule != null ? rule : compileRule(name.trim(), properties));
+        }
+        return rules;
+    }
+
+    /**
+     * Returns the name of a rule followed by its settings in key order, which identifies a rule
+     * that can be kept across reloads.
+     */
+    private static String definition(String name, Properties properties) {
+        StringBuilder definition = new StringBuilder(name);
+        String prefix = key(name, "");
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if (key.startsWith(prefix)) {
+                definition.append('\n').append(key).append('=').append(properties.getProperty(key).trim());
+            }
+        }
+        return definition.toString();
+    }
+
+    private static AlertStrategy compileRule(String name, Properties properties) {
+        String type = required(properties, name, "type");
+        String condition = required(properties, name, "condition");
+        String priority = properties.getProperty(key(name, "priority"), AlertConditions.PRIORITY_HIGH).trim();
+        if (type.equals("correlation")) {
+            return compileCorrelation(name, condition, priority, properties);
+        }
+        String signal = required(properties, name, "signal");
+
+        switch (type) {
+            case "threshold": {
+                double above = number(properties, name, "above", Double.POSITIVE_INFINITY);
+                double below = number(properties, name, "below", Double.NEGATIVE_INFINITY);
+                if (above == Double.POSITIVE_INFINITY && below == Double.NEGATIVE_INFINITY) {
+                    throw new IllegalArgumentException("Rule " + name + " needs 'above' or 'below'");
+                }
+                return new ThresholdRule(signal, condition, priority, above, below);
+            }
+            case "trend": {
+                String direction = required(properties, name, "direction");
+                if (!direction.equals("increasing") && !direction.equals("decreasing")) {
+                    throw new IllegalArgumentException("Rule " + name + " has an unknown direction: " + direction);
+                }
+                int readings = (int) number(properties, name, "readings", 3);
+                if (readings < 2) {
+                    throw new IllegalArgumentException("Rule " + name + " needs at least 2 readings");
+                }
+                double step = number(properties, name, "step", Double.NaN);
+                long window = (long) number(properties, name, "window", Double.NaN);
+                return new TrendRule(signal, condition, priority, readings, step, direction.equals("increasing"), window);
+            }
+            case "drop": {
+                double amount = number(properties, name, "amount", Double.NaN);
+                long window = (long) number(properties, name, "window", Double.NaN);
+                return new DropRule(signal, condition, priority, amount, window);
+            }
+            default:
+                throw new IllegalArgumentException("Rule " + name + " has an unknown type: " + type);
+        }
+    }
+
+    private static AlertStrategy compileCorrelation(String name, String condition, String priority,
+                                                    Properties properties) {
+        String mode = properties.getProperty(key(name, "mode"), "all").trim();
+        if (!mode.equals("all") && !mode.equals("sequence")) {
+            throw new IllegalArgumentException("Rule " + name + " has an unknown mode: " + mode);
+        }
+        List<CorrelationRule.Clause> clauses = new ArrayList<>();
+        for (String clause : required(properties, name, "when").split(";")) {
+            clauses.add(parseClause(name, clause.trim()));
+        }
+        if (clauses.size() < 2) {
+            throw new IllegalArgumentException("Rule " + name + " needs at least 2 clauses");
+        }
+        long window = (long) number(properties, name, "window", Double.NaN);
+        return new CorrelationRule(condition, priority, clauses, mode.equals("sequence"), window);
+    }
+
+    private static CorrelationRule.Clause parseClause(String name, String clause) {
+        int operator = Math.max(clause.indexOf('<'), clause.indexOf('>'));
+        if (operator <= 0 || operator == clause.length() - 1) {
+            throw new IllegalArgumentException("Rule " + name + " has an invalid clause: " + clause);
+        }
+        try {
+            return new CorrelationRule.Clause(clause.substring(0, operator).trim(), clause.charAt(operator) == '<',
+                    Double.parseDouble(clause.substring(operator + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Rule " + name + " has an invalid clause: " + clause, e);
+        }
+    }
+
+    private static String key(String name, String key) {
+        return "rule." + name + "." + key;
+    }
+
+    private static String required(Properties properties, String name, String key) {
+        String value = properties.getProperty(key(name, key));
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rule " + name + " is missing '" + key + "'");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Returns a numeric setting; a default of NaN marks the setting as required.
+     */
+    private static double number(Properties properties, String name, String key, double defaultValue) {
+        String value = properties.getProperty(key(name, key));
+        if (value == null || value.trim().isEmpty()) {
+            if (Double.isNaN(defaultValue)) {
+                throw new IllegalArgumentException("Rule " + name + " is missing '" + key + "'");
+            }
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Rule " + name + " has an invalid '" + key + "': " + value, e);
+        }
+    }
+}
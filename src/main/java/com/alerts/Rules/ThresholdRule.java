@@ -0,0 +1,48 @@
+package com.alerts.Rules;
+
+import com.alerts.Alert;
+import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.AlertTier;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alerts when a reading is above or below a fixed limit.
+ * Missing limits are compiled to infinities, so every reading costs two comparisons.
+ */
+final class ThresholdRule implements AlertStrategy {
+    private final Set<String> recordTypes;
+    private final String condition;
+    private final String priority;
+    private final double above;
+    private final double below;
+
+    ThresholdRule(String signal, String condition, String priority, double above, double below) {
+        this.recordTypes = Set.of(signal);
+        this.condition = condition;
+        this.priority = priority;
+        this.above = above;
+        this.below = below;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        double value = record.getMeasurementValue();
+        if (value > above || value < below) {
+            alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(), priority));
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+
+    @Override
+    public AlertTier getTier() {
+        return AlertTier.INLINE;
+    }
+}
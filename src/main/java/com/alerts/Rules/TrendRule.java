@@ -0,0 +1,75 @@
+package com.alerts.Rules;
+
+import com.alerts.Alert;
+import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.ReadingWindow;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts when the first N readings inside the window each changed by more than a step in the
+ * same direction, as {@link com.alerts.Strategy.BloodPressureTrendStrategy} does. The readings
+ * inside the window are kept per patient in a {@link ReadingWindow}.
+ */
+final class TrendRule implements AlertStrategy {
+    private final Set<String> recordTypes;
+    private final String condition;
+    private final String priority;
+    private final int readings;
+    private final double step;
+    private final boolean increasing;
+    private final long windowMs;
+
+    private final ConcurrentHashMap<Integer, ReadingWindow> history = new ConcurrentHashMap<>();
+
+    TrendRule(String signal, String condition, String priority, int readings, double step,
+              boolean increasing, long windowMs) {
+        this.recordTypes = Set.of(signal);
+        this.condition = condition;
+        this.priority = priority;
+        this.readings = readings;
+        this.step = step;
+        this.increasing = increasing;
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        ReadingWindow recent = history.computeIfAbsent(record.getPatientId(), id -> new ReadingWindow(readings));
+        boolean trend;
+        synchronized (recent) {
+            recent.evictBefore(record.getTimestamp() - windowMs);
+            recent.add(record.getTimestamp(), record.getMeasurementValue());
+            trend = isTrend(recent);
+        }
+        if (trend) {
+            alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(), priority));
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+
+    /**
+     * Checks that the window holds at least the full number of readings and that each of the oldest
+     * ones changed by more than the step in the trend direction.
+     */
+    private boolean isTrend(ReadingWindow recent) {
+        if (recent.size() < readings) {
+            return false;
+        }
+        for (int i = 1; i < readings; i++) {
+            double change = increasing ? recent.get(i) - recent.get(i - 1) : recent.get(i - 1) - recent.get(i);
+            if (change <= step) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package com.alerts.Strategy;
 
 import java.util.List;
+import java.util.Set;
 
 import com.alerts.Alert;
 import com.data_management.Patient;
@@ -8,4 +9,18 @@ import com.data_management.PatientRecord;
 
 public interface AlertStrategy {
     void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts);
+
+    /**
+     * Returns the record types this strategy evaluates. Records of other types are never passed to it.
+     * An empty set means the strategy is interested in every record type.
+     */
+    Set<String> getRecordTypes();
+
+    /**
+     * Returns the tier this strategy runs in during streaming evaluation.
+     * Strategies are background strategies unless they declare otherwise.
+     */
+    default AlertTier getTier() {
+        return AlertTier.BACKGROUND;
+    }
 }
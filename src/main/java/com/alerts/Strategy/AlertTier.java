@@ -0,0 +1,18 @@
+package com.alerts.Strategy;
+
+/**
+ * How expensive a strategy is, which decides where a streaming evaluation runs it.
+ */
+public enum AlertTier {
+    /**
+     * Constant-time checks of a single reading, such as thresholds. They run on the thread that
+     * writes the record, so critical alerts are raised immediately. Inline strategies may be called
+     * for the same patient from several threads and must not keep per-patient state.
+     */
+    INLINE,
+
+    /**
+     * Checks over windows or trends. They run on background workers, in record order per patient.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,130 @@
+package com.alerts.Strategy;
+
+import com.alerts.Alert;
+import com.alerts.AlertConditions;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alerts when a reading deviates from the patient's own baseline by more than k standard deviations.
+ * <p>
+ * The baseline of every patient and record type is an exponentially weighted moving mean and
+ * variance, updated in O(1) time and memory per reading. No alerts are raised until a baseline has
+ * seen the warm-up number of readings. Deviating readings still update the baseline, so a lasting
+ * change becomes the new normal. The standard deviation is at least 1% of the mean, so signals
+ * that barely vary do not alert on every small change.
+ * <p>
+ * Baselines are kept per patient in {@code PatientStates}, which drops them once the patient sent no
+ * reading for the idle period.
+ */
+public class BaselineAnomalyStrategy implements AlertStrategy {
+    public static final Set<String> DEFAULT_RECORD_TYPES = Set.of("Saturation", "Systolic", "Diastolic", "HeartRate");
+
+    public static final long DEFAULT_MAX_IDLE_MS = 3600000;
+
+    private static final double MIN_RELATIVE_STD_DEV = 0.01;
+
+    private final Set<String> recordTypes;
+    private final double alpha;
+    private final double sigmas;
+    private final int warmUp;
+
+    // Baselines per patient ID and record type
+    private final PatientStates<Baseline> baselines;
+
+    public BaselineAnomalyStrategy() {
+        this(DEFAULT_RECORD_TYPES, 0.1, 3.0, 30);
+    }
+
+    /**
+     * @param recordTypes the record types to watch, or an empty set for every type
+     * @param alpha       the weight of a new reading in the baseline, between 0 and 1
+     * @param sigmas      the number of standard deviations a reading must deviate to alert
+     * @param warmUp      the number of readings a baseline needs before it can alert
+     */
+    public BaselineAnomalyStrategy(Set<String> recordTypes, double alpha, double sigmas, int warmUp) {
+        this(recordTypes, alpha, sigmas, warmUp, DEFAULT_MAX_IDLE_MS);
+    }
+
+    /**
+     * @param recordTypes the record types to watch, or an empty set for every type
+     * @param alpha       the weight of a new reading in the baseline, between 0 and 1
+     * @param sigmas      the number of standard deviations a reading must deviate to alert
+     * @param warmUp      the number of readings a baseline needs before it can alert
+     * @param maxIdleMs   the time without readings after which a patient's baselines are dropped
+     */
+    public BaselineAnomalyStrategy(Set<String> recordTypes, double alpha, double sigmas, int warmUp, long maxIdleMs) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Alpha must be between 0 and 1: " + alpha);
+        }
+        if (!(sigmas > 0) || Double.isInfinite(sigmas)) {
+            throw new IllegalArgumentException("Sigmas must be positive: " + sigmas);
+        }
+        if (warmUp < 0) {
+            throw new IllegalArgumentException("Warm-up must not be negative: " + warmUp);
+        }
+        if (maxIdleMs <= 0) {
+            throw new IllegalArgumentException("Idle period must be positive: " + maxIdleMs);
+        }
+        this.recordTypes = Set.copyOf(recordTypes);
+        this.alpha = alpha;
+        this.sigmas = sigmas;
+        this.warmUp = warmUp;
+        this.baselines = new PatientStates<>(maxIdleMs, Baseline::new,
+                (baseline, record) -> baseline.update(record.getMeasurementValue()) ? baseline.condition : null);
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        String condition = baselines.evaluate(record);
+        if (condition != null) {
+            alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(),
+                    AlertConditions.PRIORITY_NORMAL));
+        }
+    }
+
+    /**
+     * Returns the number of patients that currently have baselines.
+     */
+    public int getPatientCount() {
+        return baselines.size();
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+
+    private final class Baseline {
+        private final String condition;
+        private long count;
+        private double mean;
+        private double variance;
+
+        Baseline(String recordType) {
+            this.condition = "Abnormal " + recordType + " Deviation";
+        }
+
+        /**
+         * Adds a reading and returns whether it deviated from the baseline before the update.
+         */
+        boolean update(double value) {
+            count++;
+            if (count == 1) {
+                mean = value;
+                return false;
+            }
+            double deviation = value - mean;
+            double stdDev = Math.max(Math.sqrt(variance), MIN_RELATIVE_STD_DEV * Math.abs(mean));
+            boolean anomalous = count > warmUp && Math.abs(deviation) > sigmas * stdDev;
+
+            double increment = alpha * deviation;
+            mean += increment;
+            variance = (1 - alpha) * (variance + deviation * increment);
+            return anomalous;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.alerts.Strategy;
+
+import com.alerts.Alert;
+import com.alerts.AlertConditions;
+import com.alerts.Factory.BloodPressureAlertFactory;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts on three blood pressure readings within 20 minutes that each change by more than 10 mmHg
+ * in the same direction. Split from {@link BloodPressureStrategy} so the window runs in the background tier.
+ */
+public class BloodPressureTrendStrategy implements AlertStrategy {
+    private static final Set<String> RECORD_TYPES = Set.of("Systolic", "Diastolic");
+    private static final long TREND_WINDOW_MS = 1200000;
+
+    // Recent readings per patient and pressure type, so trends are decided without history lookups
+    private final ConcurrentHashMap<Integer, ReadingWindow> systolicWindows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ReadingWindow> diastolicWindows = new ConcurrentHashMap<>();
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        if ("Systolic".equals(record.getRecordType()) || "Diastolic".equals(record.getRecordType())) {
+            ReadingWindow window = windowFor(record);
+            synchronized (window) {
+                window.evictBefore(record.getTimestamp() - TREND_WINDOW_MS);
+                window.add(record.getTimestamp(), record.getMeasurementValue());
+                checkIncreasingTrend(patient, record, window, alerts);
+                checkDecreasingTrend(patient, record, window, alerts);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    private void checkIncreasingTrend(Patient patient, PatientRecord record, ReadingWindow window, List<Alert> alerts) {
+        if (window.size() < 3) return;
+
+        double first = window.get(0);
+        double second = window.get(1);
+        double third = window.get(2);
+
+        if ((second - first > 10) && (third - second > 10)) {
+            BloodPressureAlertFactory factory = BloodPressureAlertFactory.getInstance();
+            alerts.add(factory.createAlert(patient.getPatientId(), AlertConditions.INCREASING_BLOOD_PRESSURE_TREND, record.getTimestamp()));
+        }
+    }
+
+    private void checkDecreasingTrend(Patient patient, PatientRecord record, ReadingWindow window, List<Alert> alerts) {
+        if (window.size() < 3) return;
+
+        double first = window.get(0);
+        double second = window.get(1);
+        double third = window.get(2);
+
+        if ((first - second > 10) && (second - third > 10)) {
+            BloodPressureAlertFactory factory = BloodPressureAlertFactory.getInstance();
+            alerts.add(factory.createAlert(patient.getPatientId(), AlertConditions.DECREASING_BLOOD_PRESSURE_TREND, record.getTimestamp()));
+        }
+    }
+
+    /**
+     * Returns the window of the record's patient and pressure type, keyed by the record's patient ID.
+     */
+    private ReadingWindow windowFor(PatientRecord record) {
+        ConcurrentHashMap<Integer, ReadingWindow> windows =
+                "Systolic".equals(record.getRecordType()) ? systolicWindows : diastolicWindows;
+        return windows.computeIfAbsent(record.getPatientId(), id -> new ReadingWindow());
+    }
+}
@@ -1,19 +1,33 @@
 package com.alerts.Strategy;
 
 import com.alerts.Alert;
+import com.alerts.AlertConditions;
 import com.alerts.Factory.ECGAlertFactory;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
 import java.util.List;
+import java.util.Set;
 
 public class ECGStrategy implements AlertStrategy {
 
+    private static final Set<String> RECORD_TYPES = Set.of("ECG");
+
     @Override
     public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
         if ("ECG".equals(record.getRecordType()) && record.getMeasurementValue() > 1.5) {
-            ECGAlertFactory factory = new ECGAlertFactory();
-            alerts.add(factory.createAlert(patient.getPatientId(), "Abnormal ECG", record.getTimestamp()));
+            ECGAlertFactory factory = ECGAlertFactory.getInstance();
+            alerts.add(factory.createAlert(patient.getPatientId(), AlertConditions.ABNORMAL_ECG, record.getTimestamp()));
         }
     }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    @Override
+    public AlertTier getTier() {
+        return AlertTier.INLINE;
+    }
 }
@@ -1,20 +1,34 @@
 package com.alerts.Strategy;
 
 import com.alerts.Alert;
+import com.alerts.AlertConditions;
 import com.alerts.Factory.AlertFactory;
 import com.alerts.Factory.ECGAlertFactory;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
 import java.util.List;
+import java.util.Set;
 
 public class HeartRateStrategy implements AlertStrategy {
 
+    private static final Set<String> RECORD_TYPES = Set.of("HeartRate");
+
     @Override
     public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
         if ("HeartRate".equals(record.getRecordType()) && record.getMeasurementValue() > 100) {
-            AlertFactory factory = new ECGAlertFactory();
-            alerts.add(factory.createAlert(patient.getPatientId(), "High Heart Rate", record.getTimestamp()));
+            AlertFactory factory = ECGAlertFactory.getInstance();
+            alerts.add(factory.createAlert(patient.getPatientId(), AlertConditions.HIGH_HEART_RATE, record.getTimestamp()));
         }
     }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    @Override
+    public AlertTier getTier() {
+        return AlertTier.INLINE;
+    }
 }
@@ -0,0 +1,98 @@
+package com.alerts.Strategy;
+
+import com.data_management.PatientRecord;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * State of a strategy per patient and record type, dropped once the patient sent no reading for the
+ * idle period, e.g. after a discharge.
+ * <p>
+ * The states of a patient are guarded by a lock per patient, so different patients are evaluated in
+ * parallel. Idle patients are swept at most once per idle period, measured in reading timestamps, so
+ * the sweep is amortized over the readings. A sweep never measures from a time later than the current
+ * time, so a single future-dated reading cannot evict every other patient.
+ *
+ * @param <T> the state kept per patient and record type
+ */
+final class PatientStates<T> {
+    private final long maxIdleMs;
+    private final Function<String, T> factory;
+    private final BiFunction<T, PatientRecord, String> evaluation;
+
+    private final ConcurrentHashMap<Integer, PatientState<T>> patients = new ConcurrentHashMap<>();
+    // Reading timestamp from which the next sweep for idle patients is due
+    private final AtomicLong nextSweep = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param maxIdleMs  the time without readings after which a patient's states are dropped
+     * @param factory    creates the state of a record type
+     * @param evaluation adds a reading to its state and returns the condition to raise, or null
+     */
+    PatientStates(long maxIdleMs, Function<String, T> factory, BiFunction<T, PatientRecord, String> evaluation) {
+        this.maxIdleMs = maxIdleMs;
+        this.factory = factory;
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Evaluates the record against the state of its patient and type while holding the patient's lock,
+     * and returns the condition to raise, or null.
+     */
+    String evaluate(PatientRecord record) {
+        sweepIfDue(record.getTimestamp());
+        while (true) {
+            PatientState<T> state = patients.computeIfAbsent(record.getPatientId(), id -> new PatientState<>());
+            synchronized (state) {
+                if (state.evicted) {
+                    // Swept by another thread between the lookup and the lock
+                    continue;
+                }
+                state.lastTimestamp = Math.max(state.lastTimestamp, record.getTimestamp());
+                return evaluation.apply(state.byType.computeIfAbsent(record.getRecordType(), factory), record);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of patients that currently have state.
+     */
+    int size() {
+        return patients.size();
+    }
+
+    /**
+     * Drops the states of patients that were idle for longer than the idle period, if a sweep is due.
+     */
+    private void sweepIfDue(long timestamp) {
+        long now = Math.min(timestamp, System.currentTimeMillis());
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + maxIdleMs)) {
+            return;
+        }
+        long cutoff = now - maxIdleMs;
+        for (Map.Entry<Integer, PatientState<T>> entry : patients.entrySet()) {
+            PatientState<T> state = entry.getValue();
+            synchronized (state) {
+                if (state.lastTimestamp < cutoff) {
+                    state.evicted = true;
+                    patients.remove(entry.getKey(), state);
+                }
+            }
+        }
+    }
+
+    /**
+     * The states of one patient per record type, guarded by this object.
+     */
+    private static final class PatientState<T> {
+        private final Map<String, T> byType = new HashMap<>();
+        private long lastTimestamp = Long.MIN_VALUE;
+        private boolean evicted;
+    }
+}
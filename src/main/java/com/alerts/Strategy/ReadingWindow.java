@@ -0,0 +1,110 @@
+package com.alerts.Strategy;
+
+/**
+ * Growable ring buffer of timestamped readings, oldest first, shared by the windowed strategies and rules.
+ * <p>
+ * Readings are expected in timestamp order. Adding, evicting and reading by position are O(1), apart from
+ * the occasional doubling of the buffer. The window is not thread-safe; callers that may evaluate the same
+ * patient from several threads synchronize on it.
+ */
+public final class ReadingWindow {
+    private long[] timestamps;
+    private double[] values;
+    private int head;
+    private int size;
+
+    public ReadingWindow() {
+        this(16);
+    }
+
+    /**
+     * @param initialCapacity the number of readings held before the buffer grows, rounded up to a power of two
+     */
+    public ReadingWindow(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1;
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Appends a reading as the newest one.
+     */
+    public void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        int tail = (head + size) & (timestamps.length - 1);
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    /**
+     * Appends a reading after removing every newer-end reading that is not above it, and returns the oldest
+     * value. Used as a monotonic deque, this keeps the values decreasing from oldest to newest, so the
+     * returned value is the window maximum; every reading is added and removed at most once, which makes it
+     * amortized O(1) per reading.
+     */
+    public double addKeepingMaximum(long timestamp, double value) {
+        // Smaller readings before this one can never be the maximum again
+        while (size > 0 && values[(head + size - 1) & (values.length - 1)] <= value) {
+            size--;
+        }
+        add(timestamp, value);
+        return values[head];
+    }
+
+    /**
+     * Removes the readings older than the given start time.
+     */
+    public void evictBefore(long startTime) {
+        while (size > 0 && timestamps[head] < startTime) {
+            removeOldest();
+        }
+    }
+
+    /**
+     * Removes the oldest reading, if any.
+     */
+    public void removeOldest() {
+        if (size > 0) {
+            head = (head + 1) & (timestamps.length - 1);
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value at the given position, where 0 is the oldest reading.
+     */
+    public double get(int index) {
+        return values[(head + index) & (values.length - 1)];
+    }
+
+    /**
+     * Returns the timestamp at the given position, where 0 is the oldest reading.
+     */
+    public long getTimestamp(int index) {
+        return timestamps[(head + index) & (timestamps.length - 1)];
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (timestamps.length - 1);
+            newTimestamps[i] = timestamps[index];
+            newValues[i] = values[index];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.alerts.Strategy;
+
+import com.alerts.Alert;
+import com.alerts.AlertConditions;
+
+import com.alerts.Factory.BloodOxygenAlertFactory;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts on a saturation drop of at least 5 points from the highest reading of the last 10 minutes.
+ * Split from {@link OxygenSaturationStrategy} so the window runs in the background tier.
+ */
+public class SaturationDropStrategy implements AlertStrategy {
+    private static final Set<String> RECORD_TYPES = Set.of("Saturation");
+    private static final long DROP_WINDOW_MS = 600000;
+
+    // Sliding window maximum of the last 10 minutes of saturation per patient
+    private final ConcurrentHashMap<Integer, ReadingWindow> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        if ("Saturation".equals(record.getRecordType())) {
+            checkRapidSaturationDrop(patient, record, alerts);
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return RECORD_TYPES;
+    }
+
+    /**
+     * Alerts when the saturation is at least 5 points below the highest reading of the last 10 minutes.
+     */
+    private void checkRapidSaturationDrop(Patient patient, PatientRecord record, List<Alert> alerts) {
+        ReadingWindow window = windows.computeIfAbsent(record.getPatientId(), id -> new ReadingWindow());
+        double peak;
+        synchronized (window) {
+            window.evictBefore(record.getTimestamp() - DROP_WINDOW_MS);
+            peak = window.addKeepingMaximum(record.getTimestamp(), record.getMeasurementValue());
+        }
+
+        if (peak - record.getMeasurementValue() >= 5) {
+            BloodOxygenAlertFactory factory = BloodOxygenAlertFactory.getInstance();
+            alerts.add(factory.createAlert(patient.getPatientId(), AlertConditions.RAPID_BLOOD_SATURATION_DROP, record.getTimestamp()));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.alerts.Strategy;
+
+import com.alerts.Alert;
+import com.alerts.AlertConditions;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Alerts when the least-squares slope of a signal over a sliding time window is too steep.
+ * <p>
+ * Every patient and record type keeps the readings of the window in a {@link ReadingWindow} together with
+ * the running sums of a linear regression, which are updated as readings enter and leave the
+ * window. Each reading therefore costs amortized O(1), regardless of the window length. Slopes are
+ * measured in units per minute. Readings older than the newest one of their window are ignored.
+ * <p>
+ * Windows are kept per patient in {@code PatientStates}, which drops them once all of the patient's
+ * readings are older than the window.
+ */
+public class SlopeTrendStrategy implements AlertStrategy {
+    private static final double MS_PER_MINUTE = 60000.0;
+
+    private final Set<String> recordTypes;
+    private final long windowMs;
+    private final int minReadings;
+    private final double maxRisePerMinute;
+    private final double maxFallPerMinute;
+
+    // Regression windows per patient ID and record type
+    private final PatientStates<Regression> regressions;
+
+    /**
+     * @param recordTypes      the record types to watch, or an empty set for every type
+     * @param windowMs         the length of the sliding window in milliseconds
+     * @param minReadings      the number of readings the window needs before a slope is trusted
+     * @param maxRisePerMinute the steepest allowed rise, or positive infinity to ignore rises
+     * @param maxFallPerMinute the steepest allowed fall as a positive number, or positive infinity to ignore falls
+     */
+    public SlopeTrendStrategy(Set<String> recordTypes, long windowMs, int minReadings,
+                              double maxRisePerMinute, double maxFallPerMinute) {
+        if (windowMs <= 0 || minReadings < 2) {
+            throw new IllegalArgumentException("A trend needs a positive window and at least 2 readings");
+        }
+        if (!(maxRisePerMinute >= 0) || !(maxFallPerMinute >= 0)) {
+            throw new IllegalArgumentException("Slope limits must not be negative: " + maxRisePerMinute
+                    + ", " + maxFallPerMinute);
+        }
+        this.recordTypes = Set.copyOf(recordTypes);
+        this.windowMs = windowMs;
+        this.minReadings = minReadings;
+        this.maxRisePerMinute = maxRisePerMinute;
+        this.maxFallPerMinute = maxFallPerMinute;
+        this.regressions = new PatientStates<>(windowMs, Regression::new, this::evaluate);
+    }
+
+    @Override
+    public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+        String condition = regressions.evaluate(record);
+        if (condition != null) {
+            alerts.add(new Alert(patient.getPatientId(), condition, record.getTimestamp(),
+                    AlertConditions.PRIORITY_NORMAL));
+        }
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return recordTypes;
+    }
+
+    /**
+     * Returns the number of patients that currently have readings in a window.
+     */
+    public int getPatientCount() {
+        return regressions.size();
+    }
+
+    /**
+     * Adds the reading to its window and returns the condition its slope calls for, or null.
+     */
+    private String evaluate(Regression regression, PatientRecord record) {
+        if (!regression.add(record.getTimestamp(), record.getMeasurementValue(), windowMs)
+                || regression.readings.size() < minReadings) {
+            return null;
+        }
+        double slope = regression.slopePerMinute();
+        if (slope > maxRisePerMinute) {
+            return regression.risingCondition;
+        } else if (-slope > maxFallPerMinute) {
+            return regression.fallingCondition;
+        }
+        return null;
+    }
+
+    /**
+     * Readings of one patient and type, oldest first, with the running sums of x (minutes since
+     * the origin), y, x squared and x times y.
+     */
+    private static final class Regression {
+        private final String risingCondition;
+        private final String fallingCondition;
+        private final ReadingWindow readings = new ReadingWindow();
+
+        // Timestamps are measured from an origin near the window, which keeps the sums precise
+        private long origin = Long.MIN_VALUE;
+        private double sumX;
+        private double sumY;
+        private double sumXX;
+        private double sumXY;
+
+        Regression(String recordType) {
+            this.risingCondition = "Rising " + recordType + " Trend";
+            this.fallingCondition = "Falling " + recordType + " Trend";
+        }
+
+        /**
+         * Adds a reading and slides the window to it. Readings older than the newest one arrive late
+         * and are ignored, so the window stays in timestamp order.
+         *
+         * @return whether the reading was added
+         */
+        boolean add(long timestamp, double value, long windowMs) {
+            if (!readings.isEmpty() && timestamp < readings.getTimestamp(readings.size() - 1)) {
+                return false;
+            }
+            long startTime = timestamp - windowMs;
+            while (!readings.isEmpty() && readings.getTimestamp(0) < startTime) {
+                accumulate(readings.getTimestamp(0), readings.get(0), -1);
+                readings.removeOldest();
+            }
+            if (readings.isEmpty() || timestamp - origin > 4 * windowMs) {
+                rebase(readings.isEmpty() ? timestamp : readings.getTimestamp(0));
+            }
+            readings.add(timestamp, value);
+            accumulate(timestamp, value, 1);
+            return true;
+        }
+
+        double slopePerMinute() {
+            int size = readings.size();
+            double denominator = size * sumXX - sumX * sumX;
+            if (denominator <= 0) {
+                return 0;
+            }
+            return (size * sumXY - sumX * sumY) / denominator;
+        }
+
+        private void accumulate(long timestamp, double value, int sign) {
+            double x = (timestamp - origin) / MS_PER_MINUTE;
+            sumX += sign * x;
+            sumY += sign * value;
+            sumXX += sign * x * x;
+            sumXY += sign * x * value;
+        }
+
+        /**
+         * Moves the origin to the given timestamp and recomputes the sums from the buffered readings.
+         * This happens at most once every few windows, so its cost is amortized over the readings.
+         */
+        private void rebase(long newOrigin) {
+            origin = newOrigin;
+            sumX = 0;
+            sumY = 0;
+            sumXX = 0;
+            sumXY = 0;
+            for (int i = 0; i < readings.size(); i++) {
+                accumulate(readings.getTimestamp(i), readings.get(i), 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.alerts;
+
+import com.data_management.LatencyHistogram;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation count, raised alerts and evaluation time of one strategy in an {@link AlertGenerator}.
+ * <p>
+ * Counting is a {@link LongAdder} increment per invocation. Only a random sample of one in
+ * {@value #SAMPLE_INTERVAL} invocations is timed with {@link System#nanoTime()}, so the timing
+ * overhead stays small; the total time is estimated from the sampled invocations.
+ */
+public class StrategyStats implements StrategyStatsMBean {
+    static final int SAMPLE_INTERVAL = 16;
+
+    private final String strategyName;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder alerts = new LongAdder();
+    private final LatencyHistogram timeNanos = new LatencyHistogram();
+
+    StrategyStats(String strategyName) {
+        this.strategyName = strategyName;
+    }
+
+    static boolean shouldSample() {
+        return (ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    void recordInvocation(int raisedAlerts) {
+        invocations.increment();
+        if (raisedAlerts > 0) {
+            alerts.add(raisedAlerts);
+        }
+    }
+
+    void recordTime(long nanos) {
+        timeNanos.record(nanos);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getAlertCount() {
+        return alerts.sum();
+    }
+
+    @Override
+    public double getEstimatedTotalTimeMillis() {
+        return timeNanos.getMean() * getInvocationCount() / 1e6;
+    }
+
+    @Override
+    public double getMeanTimeMicros() {
+        return timeNanos.getMean() / 1e3;
+    }
+
+    @Override
+    public double getP50TimeMicros() {
+        return timeNanos.getPercentile(50) / 1e3;
+    }
+
+    @Override
+    public double getP99TimeMicros() {
+        return timeNanos.getPercentile(99) / 1e3;
+    }
+
+    @Override
+    public double getMaxTimeMicros() {
+        return timeNanos.getMax() / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        invocations.reset();
+        alerts.reset();
+        timeNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s invocations=%d alerts=%d total=%.1fms mean=%.2fus p50=%.2fus p99=%.2fus max=%.2fus",
+                strategyName, getInvocationCount(), getAlertCount(), getEstimatedTotalTimeMillis(),
+                getMeanTimeMicros(), getP50TimeMicros(), getP99TimeMicros(), getMaxTimeMicros());
+    }
+}
@@ -0,0 +1,25 @@
+package com.alerts;
+
+/**
+ * JMX view of the evaluation cost of a single alert strategy.
+ */
+public interface StrategyStatsMBean {
+
+    String getStrategyName();
+
+    long getInvocationCount();
+
+    long getAlertCount();
+
+    double getEstimatedTotalTimeMillis();
+
+    double getMeanTimeMicros();
+
+    double getP50TimeMicros();
+
+    double getP99TimeMicros();
+
+    double getMaxTimeMicros();
+
+    void reset();
+}
@@ -0,0 +1,178 @@
+package com.alerts;
+
+import com.alerts.Strategy.AlertTier;
+import com.data_management.DataStorage;
+import com.data_management.DataStorageListener;
+import com.data_management.LatencyHistogram;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Evaluates every record as soon as it is written to the {@link DataStorage}, instead of waiting
+ * for someone to call {@link AlertGenerator#evaluateData(Patient)}.
+ * <p>
+ * Strategies of the {@link AlertTier#INLINE} tier run directly on the writing thread, so critical
+ * threshold alerts never wait behind window computations. The record is then handed off to a fixed
+ * set of dedicated worker threads for the {@link AlertTier#BACKGROUND} tier. All records of a
+ * patient go to the same worker, so background strategies see a patient's records in order and
+ * never concurrently. Workers take the queued records in batches, grouped by patient.
+ * The time from a record being written to an alert being raised is tracked in microseconds.
+ */
+public class StreamingAlertEngine implements DataStorageListener {
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_BATCH = 256;
+    private static final Comparator<PendingRecord> BY_PATIENT =
+            Comparator.comparingInt(pending -> pending.record.getPatientId());
+
+    private final AlertGenerator alertGenerator;
+    private final List<BlockingQueue<PendingRecord>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final LatencyHistogram alertLatencyMicros = new LatencyHistogram();
+    private final LatencyHistogram evaluationLatencyMicros = new LatencyHistogram();
+    private DataStorage dataStorage;
+    private volatile boolean running;
+    // Scratch list for inline evaluation on each writing thread
+    private final ThreadLocal<List<Alert>> inlineRaised = ThreadLocal.withInitial(ArrayList::new);
+
+    public StreamingAlertEngine(AlertGenerator alertGenerator, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("At least one worker thread is required");
+        }
+        this.alertGenerator = alertGenerator;
+        for (int i = 0; i < workerCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        }
+    }
+
+    /**
+     * Starts the worker threads and subscribes to writes on the given storage.
+     */
+    public synchronized void start(DataStorage dataStorage) {
+        if (running) {
+            throw new IllegalStateException("Engine is already running");
+        }
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<PendingRecord> queue = queues.get(i);
+            Thread worker = new Thread(() -> runWorker(queue), "alert-engine-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        this.dataStorage = dataStorage;
+        dataStorage.addListener(this);
+    }
+
+    /**
+     * Unsubscribes from the storage and stops the worker threads. Records still queued are dropped.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dataStorage.removeListener(this);
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public void onRecordAdded(Patient patient, PatientRecord record, int index) {
+        long writtenNanos = System.nanoTime();
+        List<Alert> raised = inlineRaised.get();
+        try {
+            alertGenerator.evaluateRecord(patient, record, index, AlertTier.INLINE, raised);
+            recordAlertLatency(writtenNanos, raised.size());
+        } catch (RuntimeException e) {
+            System.err.println("Error evaluating record of patient " + record.getPatientId() + ": " + e.getMessage());
+        } finally {
+            raised.clear();
+        }
+
+        BlockingQueue<PendingRecord> queue = queues.get(Math.floorMod(patient.getPatientId(), queues.size()));
+        try {
+            // A full queue slows down ingest rather than buffering without bound
+            queue.put(new PendingRecord(patient, record, index, writtenNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the histogram of the time between a record being written and the alert it raised, in microseconds.
+     */
+    public LatencyHistogram getAlertLatencyMicros() {
+        return alertLatencyMicros;
+    }
+
+    /**
+     * Returns the histogram of the time between a record being written and its evaluation finishing, in microseconds.
+     */
+    public LatencyHistogram getEvaluationLatencyMicros() {
+        return evaluationLatencyMicros;
+    }
+
+    private void runWorker(BlockingQueue<PendingRecord> queue) {
+        List<Alert> raised = new ArrayList<>();
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            // A stable sort keeps each patient's records in order while evaluating a patient's records together
+            batch.sort(BY_PATIENT);
+            for (PendingRecord pending : batch) {
+                try {
+                    alertGenerator.evaluateRecord(pending.patient, pending.record, pending.index, AlertTier.BACKGROUND, raised);
+                } catch (RuntimeException e) {
+                    System.err.println("Error evaluating record of patient " + pending.record.getPatientId() + ": " + e.getMessage());
+                }
+                evaluationLatencyMicros.record((System.nanoTime() - pending.enqueuedNanos) / 1000);
+                recordAlertLatency(pending.enqueuedNanos, raised.size());
+                raised.clear();
+            }
+            batch.clear();
+        }
+    }
+
+    private void recordAlertLatency(long writtenNanos, int alerts) {
+        if (alerts > 0) {
+            long latencyMicros = (System.nanoTime() - writtenNanos) / 1000;
+            for (int i = 0; i < alerts; i++) {
+                alertLatencyMicros.record(latencyMicros);
+            }
+        }
+    }
+
+    private static final class PendingRecord {
+        private final Patient patient;
+        private final PatientRecord record;
+        private final int index;
+        private final long enqueuedNanos;
+
+        private PendingRecord(Patient patient, PatientRecord record, int index, long enqueuedNanos) {
+            this.patient = patient;
+            this.record = record;
+            this.index = index;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
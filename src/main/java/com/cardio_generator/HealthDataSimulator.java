@@ -100,6 +100,7 @@ public class HealthDataSimulator {
      *     <li>{@code console}: For console output.
      *     <li>{@code file:<directory>}: For file output. The directory must be specified after the colon.
      *     <li>{@code websocket:<port>}: For WebSocket output. The port number must be specified after the colon.
+     *     Append {@code :<batchSize>:<lingerMillis>} to coalesce records into batched frames.
      *     <li>{@code tcp:<port>}: For TCP socket output. The port number must be specified after the colon.
      *     </ul>
      * </ul>
@@ -139,11 +140,21 @@ public class HealthDataSimulator {
                             outputStrategy = new FileOutputStrategy(baseDirectory);
                         } else if (outputArg.startsWith("websocket:")) {
                             try {
-                                int port = Integer.parseInt(outputArg.substring(10));
-                                outputStrategy = new WebSocketOutputStrategy(port);
-                                System.out.println("WebSocket output will be on port: " + port);
-                            } catch (NumberFormatException e) {
-                                System.err.println("Invalid port for WebSocket output. Please specify a valid port number.");
+                                // websocket:<port>[:<batchSize>:<lingerMillis>]
+                                String[] parts = outputArg.substring(10).split(":");
+                                int port = Integer.parseInt(parts[0]);
+                                if (parts.length == 3) {
+                                    int batchSize = Integer.parseInt(parts[1]);
+                                    long lingerMillis = Long.parseLong(parts[2]);
+                                    outputStrategy = new WebSocketOutputStrategy(port, batchSize, lingerMillis);
+                                    System.out.println("WebSocket output will be on port: " + port + ", batching up to "
+                                            + batchSize + " records or " + lingerMillis + " ms per frame");
+                                } else {
+                                    outputStrategy = new WebSocketOutputStrategy(port);
+                                    System.out.println("WebSocket output will be on port: " + port);
+                                }
+                            } catch (IllegalArgumentException e) {
+                                System.err.println("Invalid port or batch settings for WebSocket output. Please specify valid numbers.");
                             }
                         } else if (outputArg.startsWith("tcp:")) {
                             try {
@@ -183,6 +194,7 @@ public class HealthDataSimulator {
         System.out.println("                             'console' for console output,");
         System.out.println("                             'file:<directory>' for file output,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
+        System.out.println("                             'websocket:<port>:<batch>:<lingerMs>' for batched WebSocket output,");
         System.out.println("                             'tcp:<port>' for TCP socket output.");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
@@ -4,26 +4,80 @@ import org.java_websocket.WebSocket;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An implementation of the {@link OutputStrategy} interface that sends data to WebSocket clients.
  * <p>
  * This class establishes a WebSocket server that listens for incoming connections on the specified port.
  * When data is received, it is sent to all connected WebSocket clients.
+ * <p>
+ * In batching mode, records are coalesced into a single frame per connection, with records separated
+ * by {@link #RECORD_SEPARATOR}. A batch is sent as soon as it holds the configured number of records,
+ * or when the linger time has passed, whichever comes first. With a linger time of 0 records never wait,
+ * so every record is sent on its own as soon as it is output.
  */
 public class WebSocketOutputStrategy implements OutputStrategy {
 
+    /** Separates the records inside a batched frame. */
+    public static final char RECORD_SEPARATOR = '\n';
+
     private WebSocketServer server;
 
+    /** Maximum number of records per frame; 1 disables batching. */
+    private final int batchSize;
+
+    /** Maximum time in milliseconds a record waits for its batch to fill up. */
+    private final long lingerMillis;
+
+    /** Records waiting to be sent in the next frame. */
+    private final StringBuilder batch = new StringBuilder();
+    private int batchedRecords;
+
+    private ScheduledExecutorService lingerScheduler;
+
     /**
      * Constructs a WebSocketOutputStrategy that listens for WebSocket connections on the specified port.
      *
      * @param port The port on which the WebSocket server will listen for connections.
      */
     public WebSocketOutputStrategy(int port) {
+        this(port, 1, 0);
+    }
+
+    /**
+     * Constructs a WebSocketOutputStrategy that coalesces records into batched frames.
+     *
+     * @param port         The port on which the WebSocket server will listen for connections.
+     * @param batchSize    The maximum number of records per frame; 1 sends every record on its own.
+     * @param lingerMillis The maximum time in milliseconds a record waits for its batch to fill up;
+     *                     0 sends every record immediately.
+     */
+    public WebSocketOutputStrategy(int port, int batchSize, long lingerMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (lingerMillis < 0) {
+            throw new IllegalArgumentException("Linger time must not be negative");
+        }
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
         server = new SimpleWebSocketServer(new InetSocketAddress(port));
+        // Allows a restarted simulator to bind while connections of the previous run linger in TIME_WAIT
+        server.setReuseAddr(true);
         System.out.println("WebSocket server created on port: " + port + ", listening for connections...");
         server.start();
+
+        if (batchSize > 1 && lingerMillis > 0) {
+            lingerScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "websocket-batch-linger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            lingerScheduler.scheduleAtFixedRate(this::flush, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -36,11 +90,62 @@ public class WebSocketOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
-        // Broadcast the message to all connected clients
-        for (WebSocket conn : server.getConnections()) {
-            conn.send(message);
+        if (batchSize == 1 || lingerMillis == 0) {
+            String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
+            // Broadcast the message to all connected clients
+            for (WebSocket conn : server.getConnections()) {
+                conn.send(message);
+            }
+            return;
+        }
+
+        String message = null;
+        synchronized (batch) {
+            if (batchedRecords > 0) {
+                batch.append(RECORD_SEPARATOR);
+            }
+            batch.append(patientId).append(',').append(timestamp).append(',').append(label).append(',').append(data);
+            if (++batchedRecords >= batchSize) {
+                message = takeBatch();
+            }
+        }
+        if (message != null) {
+            server.broadcast(message);
+        }
+    }
+
+    /**
+     * Sends the records that are currently waiting in the batch, if any.
+     */
+    public void flush() {
+        String message;
+        synchronized (batch) {
+            message = takeBatch();
+        }
+        if (message != null) {
+            server.broadcast(message);
+        }
+    }
+
+    /**
+     * Stops sending batches on the linger schedule and shuts the WebSocket server down.
+     */
+    public void stop() throws InterruptedException {
+        if (lingerScheduler != null) {
+            lingerScheduler.shutdownNow();
+        }
+        flush();
+        server.stop();
+    }
+
+    private String takeBatch() {
+        if (batchedRecords == 0) {
+            return null;
         }
+        String message = batch.toString();
+        batch.setLength(0);
+        batchedRecords = 0;
+        return message;
     }
 
     /**
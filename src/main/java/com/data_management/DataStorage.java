@@ -1,8 +1,11 @@
 package com.data_management;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.alerts.AlertGenerator;
@@ -16,6 +19,9 @@ public class DataStorage {
     // Concurrent HashMap to store patient records
     private final ConcurrentHashMap<Integer, Patient> patientMap; // Stores patient objects indexed by their unique patient ID.
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<DataStorageListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<DirtyPatientSet> dirtyPatientSets = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, SignalLeaderboard> leaderboards = new ConcurrentHashMap<>();
     private static volatile DataStorage instance;
 
     /**
@@ -27,6 +33,7 @@ public class DataStorage {
 
     public void clear() {
         patientMap.clear();
+        leaderboards.replaceAll((recordType, leaderboard) -> new SignalLeaderboard());
     }
 
     public static DataStorage getInstance() {
@@ -55,13 +62,171 @@ public class DataStorage {
             throw new NullPointerException("Record type cannot be null");
         }
 
+        PatientRecord record = new PatientRecord(patientId, measurementValue, recordType, timestamp);
+        Patient patient;
+        int index;
         lock.writeLock().lock();
         try {
-            Patient patient = patientMap.computeIfAbsent(patientId, id -> new Patient(id));
-            patient.addRecord(measurementValue, recordType, timestamp);
+            patient = patientMap.computeIfAbsent(patientId, id -> new Patient(id));
+            index = patient.addRecord(record);
         } finally {
             lock.writeLock().unlock();
         }
+        updateLeaderboard(record);
+        markDirty(patientId);
+        notifyListeners(patient, record, index);
+    }
+
+    /**
+     * Adds a batch of records to the storage while taking the write lock only once.
+     * Patients that do not exist yet are created.
+     *
+     * @param records the records to store
+     */
+    public void addPatientRecords(List<PatientRecord> records) {
+        int[] indices = new int[records.size()];
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < indices.length; i++) {
+                PatientRecord record = records.get(i);
+                if (record.getRecordType() == null) {
+                    throw new NullPointerException("Record type cannot be null");
+                }
+                Patient patient = patientMap.computeIfAbsent(record.getPatientId(), id -> new Patient(id));
+                indices[i] = patient.addRecord(record);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (PatientRecord record : records) {
+            updateLeaderboard(record);
+        }
+        if (!dirtyPatientSets.isEmpty()) {
+            for (PatientRecord record : records) {
+                markDirty(record.getPatientId());
+            }
+        }
+        if (!listeners.isEmpty()) {
+            for (int i = 0; i < indices.length; i++) {
+                PatientRecord record = records.get(i);
+                notifyListeners(patientMap.get(record.getPatientId()), record, indices[i]);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener that is notified of every record added to the storage.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(DataStorageListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(DataStorageListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts tracking which patients receive new records. Every returned set is marked independently,
+     * so several consumers can each drain their own set.
+     *
+     * @return a set that collects the IDs of patients with new records
+     */
+    public DirtyPatientSet trackDirtyPatients() {
+        DirtyPatientSet dirtyPatients = new DirtyPatientSet();
+        dirtyPatientSets.add(dirtyPatients);
+        return dirtyPatients;
+    }
+
+    /**
+     * Stops updating a set returned by {@link #trackDirtyPatients()}.
+     *
+     * @param dirtyPatients the set to stop updating
+     */
+    public void untrackDirtyPatients(DirtyPatientSet dirtyPatients) {
+        dirtyPatientSets.remove(dirtyPatients);
+    }
+
+    /**
+     * Starts ranking patients by a signal for {@link #getTopPatients} and {@link #getBottomPatients}.
+     * Only tracked signals are ranked, so high-rate signals such as ECG cost nothing unless asked for.
+     * The ranking starts from the records already stored.
+     *
+     * @param recordType the type of record to rank, e.g., "Saturation"
+     */
+    public void trackLeaderboard(String recordType) {
+        SignalLeaderboard leaderboard = new SignalLeaderboard();
+        if (leaderboards.putIfAbsent(recordType, leaderboard) != null) {
+            return;
+        }
+        // Records added meanwhile update the new leaderboard as well; older ones are ignored by it
+        lock.readLock().lock();
+        try {
+            for (Patient patient : patientMap.values()) {
+                for (PatientRecord record : patient.getRecords(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                    if (recordType.equals(record.getRecordType())) {
+                        leaderboard.update(record);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the latest records of the patients with the highest current value of a signal,
+     * highest first. Only each patient's newest record of the signal counts.
+     *
+     * @param recordType the type of record, e.g., "Systolic"
+     * @param k          the maximum number of patients to return
+     * @return up to {@code k} records, one per patient, or none if the signal is not tracked
+     * @see #trackLeaderboard(String)
+     */
+    public List<PatientRecord> getTopPatients(String recordType, int k) {
+        SignalLeaderboard leaderboard = leaderboards.get(recordType);
+        return leaderboard == null ? new ArrayList<>() : leaderboard.top(k);
+    }
+
+    /**
+     * Returns the latest records of the patients with the lowest current value of a signal,
+     * lowest first. Only each patient's newest record of the signal counts.
+     *
+     * @param recordType the type of record, e.g., "Saturation"
+     * @param k          the maximum number of patients to return
+     * @return up to {@code k} records, one per patient, or none if the signal is not tracked
+     * @see #trackLeaderboard(String)
+     */
+    public List<PatientRecord> getBottomPatients(String recordType, int k) {
+        SignalLeaderboard leaderboard = leaderboards.get(recordType);
+        return leaderboard == null ? new ArrayList<>() : leaderboard.bottom(k);
+    }
+
+    // Updated outside the storage lock; each leaderboard orders its own updates by record timestamp
+    private void updateLeaderboard(PatientRecord record) {
+        SignalLeaderboard leaderboard = leaderboards.get(record.getRecordType());
+        if (leaderboard != null) {
+            leaderboard.update(record);
+        }
+    }
+
+    // Marked after the record is stored, so a patient drained from the set always has its records visible
+    private void markDirty(int patientId) {
+        for (DirtyPatientSet dirtyPatients : dirtyPatientSets) {
+            dirtyPatients.mark(patientId);
+        }
+    }
+
+    private void notifyListeners(Patient patient, PatientRecord record, int index) {
+        for (DataStorageListener listener : listeners) {
+            listener.onRecordAdded(patient, record, index);
+        }
     }
 
     /**
@@ -146,6 +311,27 @@ public class DataStorage {
         }
     }
 
+    /**
+     * Returns the timestamp of the latest record stored for every patient.
+     * Used by readers to tell an upstream server from which point on data is still missing.
+     *
+     * @return a map from patient ID to the latest record timestamp of that patient
+     */
+    public Map<Integer, Long> getLastTimestamps() {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Long> lastTimestamps = new HashMap<>();
+            for (Patient patient : patientMap.values()) {
+                if (patient.getLastTimestamp() != Long.MIN_VALUE) {
+                    lastTimestamps.put(patient.getPatientId(), patient.getLastTimestamp());
+                }
+            }
+            return lastTimestamps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     /**
      * The main method for the DataStorage class.
      * Initializes the system, reads data into storage, and continuously monitors and evaluates patient data.
@@ -157,6 +343,10 @@ public class DataStorage {
         
         DataStorage storage = DataStorage.getInstance();
 
+        // Derive heart rate and RR intervals from ECG samples as they are added, so they are alerted on too
+        EcgProcessor ecgProcessor = new EcgProcessor(storage);
+        ecgProcessor.start();
+
         // Assuming the reader has been properly initialized and can read data into the storage
         // reader.readData(storage);
 
@@ -0,0 +1,18 @@
+package com.data_management;
+
+/**
+ * Receives every record written to a {@link DataStorage}.
+ * Listeners are called on the writing thread after the record has been stored, so they should
+ * hand off expensive work instead of doing it inline.
+ */
+public interface DataStorageListener {
+
+    /**
+     * Called after a record has been added to the storage.
+     *
+     * @param patient the patient the record was added to
+     * @param record  the stored record
+     * @param index   the position of the record among the patient's records, in the order they were added
+     */
+    void onRecordAdded(Patient patient, PatientRecord record, int index);
+}
@@ -0,0 +1,72 @@
+package com.data_management;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Subscribes to record batches, stores them in a {@link DataStorage} and republishes each stored
+ * batch to its own subscribers, so that downstream consumers like the alert engine only see data
+ * that is already available in the storage.
+ * <p>
+ * Only a bounded number of batches is requested ahead; the next batch is requested once the
+ * previous one has been stored, which propagates backpressure to the source.
+ */
+public class DataStorageProcessor extends SubmissionPublisher<List<PatientRecord>>
+        implements Flow.Processor<List<PatientRecord>, List<PatientRecord>> {
+
+    private static final int DEFAULT_PREFETCH = 4;
+
+    private final DataStorage dataStorage;
+    private final int prefetch;
+    private Flow.Subscription subscription;
+
+    /**
+     * Creates a processor that stores batches in the given storage.
+     *
+     * @param dataStorage the storage where data will be stored
+     */
+    public DataStorageProcessor(DataStorage dataStorage) {
+        this(dataStorage, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Creates a processor.
+     *
+     * @param dataStorage       the storage where data will be stored
+     * @param executor          the executor used to deliver stored batches downstream
+     * @param maxBufferCapacity the maximum number of batches buffered per downstream subscriber
+     * @param prefetch          the number of batches requested ahead from the source
+     */
+    public DataStorageProcessor(DataStorage dataStorage, Executor executor, int maxBufferCapacity, int prefetch) {
+        super(executor, maxBufferCapacity);
+        this.dataStorage = dataStorage;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(List<PatientRecord> batch) {
+        dataStorage.addPatientRecords(batch);
+        // Blocks while a downstream subscriber is saturated, which in turn delays the next request
+        submit(batch);
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+}
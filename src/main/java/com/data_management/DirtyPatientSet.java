@@ -0,0 +1,39 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The IDs of patients that received records since the set was last drained.
+ * Obtained from {@link DataStorage#trackDirtyPatients()}; marking and draining never block each other.
+ */
+public class DirtyPatientSet {
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+    void mark(int patientId) {
+        dirty.add(patientId);
+    }
+
+    /**
+     * Removes and returns the IDs of all patients marked since the last drain.
+     * A patient that receives a record while being drained is either returned now or by the next drain.
+     *
+     * @return the IDs of the dirty patients
+     */
+    public List<Integer> drain() {
+        List<Integer> patientIds = new ArrayList<>();
+        Iterator<Integer> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            patientIds.add(iterator.next());
+            iterator.remove();
+        }
+        return patientIds;
+    }
+
+    public boolean isEmpty() {
+        return dirty.isEmpty();
+    }
+}
@@ -0,0 +1,226 @@
+package com.data_management;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects R-peaks in streamed ECG samples and publishes the derived heart rate and RR intervals.
+ * <p>
+ * Every ECG record added to the storage is passed through a per-patient detector in the style of
+ * Pan and Tompkins: a 5-15 Hz band-pass filter, a derivative, squaring and a 150 ms moving window
+ * integration, followed by an adaptive threshold between the running signal and noise peak levels.
+ * Each sample costs a constant amount of work. For every detected beat after the first, a
+ * {@value #RR_INTERVAL} record in milliseconds and a {@value #HEART_RATE} record in beats per minute
+ * are added to the storage, so they are evaluated like any other reading.
+ * <p>
+ * The ECG samples of one patient are expected in timestamp order and from one thread at a time.
+ */
+public class EcgProcessor implements DataStorageListener {
+    public static final String ECG = "ECG";
+    public static final String HEART_RATE = "HeartRate";
+    public static final String RR_INTERVAL = "RRInterval";
+    public static final double DEFAULT_SAMPLE_RATE = 250.0;
+
+    private static final double LOW_CUTOFF_HZ = 5.0;
+    private static final double HIGH_CUTOFF_HZ = 15.0;
+    private static final double INTEGRATION_WINDOW_S = 0.15;
+    private static final double LEARNING_PERIOD_S = 2.0;
+    private static final long REFRACTORY_MS = 200;
+    private static final long MAX_RR_MS = 3000;
+
+    private final DataStorage dataStorage;
+    private final double sampleRate;
+    private final Biquad highPass;
+    private final Biquad lowPass;
+    private final int integrationWindow;
+    private final int learningSamples;
+    private final ConcurrentHashMap<Integer, Detector> detectors = new ConcurrentHashMap<>();
+
+    public EcgProcessor(DataStorage dataStorage) {
+        this(dataStorage, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * @param dataStorage the storage to read ECG samples from and publish derived records to
+     * @param sampleRate  the ECG sampling rate in Hz, used to design the filters
+     */
+    public EcgProcessor(DataStorage dataStorage, double sampleRate) {
+        if (sampleRate <= 2 * HIGH_CUTOFF_HZ) {
+            throw new IllegalArgumentException("Sample rate too low for R-peak detection: " + sampleRate);
+        }
+        this.dataStorage = dataStorage;
+        this.sampleRate = sampleRate;
+        this.highPass = Biquad.highPass(LOW_CUTOFF_HZ, sampleRate);
+        this.lowPass = Biquad.lowPass(HIGH_CUTOFF_HZ, sampleRate);
+        this.integrationWindow = Math.max(1, (int) Math.round(INTEGRATION_WINDOW_S * sampleRate));
+        this.learningSamples = (int) Math.round(LEARNING_PERIOD_S * sampleRate);
+    }
+
+    /**
+     * Starts processing the ECG records added to the storage.
+     */
+    public void start() {
+        dataStorage.addListener(this);
+    }
+
+    public void stop() {
+        dataStorage.removeListener(this);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void onRecordAdded(Patient patient, PatientRecord record, int index) {
+        if (ECG.equals(record.getRecordType())) {
+            process(record.getPatientId(), record.getMeasurementValue(), record.getTimestamp());
+        }
+    }
+
+    /**
+     * Processes one ECG sample of a patient.
+     */
+    public void process(int patientId, double value, long timestamp) {
+        Detector detector = detectors.computeIfAbsent(patientId, id -> new Detector());
+        long rrInterval;
+        long beatTimestamp;
+        synchronized (detector) {
+            rrInterval = detector.add(value, timestamp);
+            beatTimestamp = detector.lastPeak;
+        }
+        if (rrInterval > 0) {
+            // Published outside the detector lock, since storage listeners run on this thread
+            dataStorage.addPatientData(patientId, rrInterval, RR_INTERVAL, beatTimestamp);
+            dataStorage.addPatientData(patientId, 60000.0 / rrInterval, HEART_RATE, beatTimestamp);
+        }
+    }
+
+    /**
+     * Forgets the detector state of a patient, e.g. after the leads were reattached.
+     */
+    public void reset(int patientId) {
+        detectors.remove(patientId);
+    }
+
+    /**
+     * Second-order IIR filter coefficients, from the audio EQ cookbook with a Butterworth Q.
+     */
+    private static final class Biquad {
+        private final double b0, b1, b2, a1, a2;
+
+        private Biquad(double b0, double b1, double b2, double a0, double a1, double a2) {
+            this.b0 = b0 / a0;
+            this.b1 = b1 / a0;
+            this.b2 = b2 / a0;
+            this.a1 = a1 / a0;
+            this.a2 = a2 / a0;
+        }
+
+        static Biquad lowPass(double cutoff, double sampleRate) {
+            double w0 = 2 * Math.PI * cutoff / sampleRate;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / Math.sqrt(2);
+            return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+
+        static Biquad highPass(double cutoff, double sampleRate) {
+            double w0 = 2 * Math.PI * cutoff / sampleRate;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / Math.sqrt(2);
+            return new Biquad((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+    }
+
+    /**
+     * Filter and threshold state of one patient.
+     */
+    private final class Detector {
+        // Band-pass filter history, x for inputs and y for outputs
+        private double hx1, hx2, hy1, hy2;
+        private double lx1, lx2, ly1, ly2;
+        // Last four band-passed samples for the five-point derivative
+        private double d1, d2, d3, d4;
+        private final double[] window = new double[integrationWindow];
+        private int windowIndex;
+        private double windowSum;
+
+        private long samples;
+        private double learningMax;
+        private double learningSum;
+        private double signalLevel;
+        private double noiseLevel;
+
+        private double previous;
+        private long previousTimestamp;
+        private boolean rising;
+        private long lastPeak = Long.MIN_VALUE;
+
+        /**
+         * Adds a sample and returns the RR interval in milliseconds if it completed a beat, or 0.
+         */
+        long add(double value, long timestamp) {
+            double highPassed = highPass.b0 * value + highPass.b1 * hx1 + highPass.b2 * hx2
+                    - highPass.a1 * hy1 - highPass.a2 * hy2;
+            hx2 = hx1;
+            hx1 = value;
+            hy2 = hy1;
+            hy1 = highPassed;
+            double bandPassed = lowPass.b0 * highPassed + lowPass.b1 * lx1 + lowPass.b2 * lx2
+                    - lowPass.a1 * ly1 - lowPass.a2 * ly2;
+            lx2 = lx1;
+            lx1 = highPassed;
+            ly2 = ly1;
+            ly1 = bandPassed;
+
+            double derivative = (2 * bandPassed + d1 - d3 - 2 * d4) / 8;
+            d4 = d3;
+            d3 = d2;
+            d2 = d1;
+            d1 = bandPassed;
+
+            double squared = derivative * derivative;
+            windowSum += squared - window[windowIndex];
+            window[windowIndex] = squared;
+            windowIndex = (windowIndex + 1) % window.length;
+            double integrated = windowSum / window.length;
+
+            samples++;
+            if (samples <= learningSamples) {
+                learningMax = Math.max(learningMax, integrated);
+                learningSum += integrated;
+                if (samples == learningSamples) {
+                    signalLevel = 0.25 * learningMax;
+                    noiseLevel = 0.5 * learningSum / learningSamples;
+                }
+                return remember(integrated, timestamp, 0);
+            }
+
+            long rrInterval = 0;
+            // A local maximum of the integrated signal is a peak candidate
+            if (rising && integrated < previous) {
+                rrInterval = classifyPeak(previous, previousTimestamp);
+            }
+            return remember(integrated, timestamp, rrInterval);
+        }
+
+        private long classifyPeak(double peak, long timestamp) {
+            double threshold = noiseLevel + 0.25 * (signalLevel - noiseLevel);
+            if (peak < threshold || (lastPeak != Long.MIN_VALUE && timestamp - lastPeak < REFRACTORY_MS)) {
+                noiseLevel = 0.125 * peak + 0.875 * noiseLevel;
+                return 0;
+            }
+            signalLevel = 0.125 * peak + 0.875 * signalLevel;
+            long rrInterval = lastPeak == Long.MIN_VALUE ? 0 : timestamp - lastPeak;
+            lastPeak = timestamp;
+            // A gap in the samples is not a beat interval
+            return rrInterval <= MAX_RR_MS ? rrInterval : 0;
+        }
+
+        private long remember(double integrated, long timestamp, long rrInterval) {
+            rising = integrated > previous;
+            previous = integrated;
+            previousTimestamp = timestamp;
+            return rrInterval;
+        }
+    }
+}
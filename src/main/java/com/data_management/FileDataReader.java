@@ -5,9 +5,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.function.Consumer;
 
 public class FileDataReader implements DataReader {
     private BufferedReader reader;
+    private final IngestMetrics metrics = IngestMetrics.forReader("file");
 
     /**
      * Constructor
@@ -36,24 +38,56 @@ public class FileDataReader implements DataReader {
     
     public void readData(DataStorage dataStorage) throws IOException {
         try {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-                if (fields.length == 4) {
-                    int patientId = Integer.parseInt(fields[0]);
-                    double measurementValue = Double.parseDouble(fields[1]);
-                    String recordType = fields[2];
-                    long timestamp = Long.parseLong(fields[3]);
-                    dataStorage.addPatientData(patientId, measurementValue, recordType, timestamp);
-                } else {
-                    System.err.println("Ignored: " + line);
-                }
-            }
+            readRecords(record -> dataStorage.addPatientData(record.getPatientId(), record.getMeasurementValue(),
+                    record.getRecordType(), record.getTimestamp()));
         } finally {
             reader.close();
         }
     }
 
+    /**
+     * Reads the file and publishes its records in batches to the subscribers of the given publisher.
+     * Subscribers should be attached before calling this method. The publisher is closed once the
+     * whole file has been read, which completes the subscribers. Blocks while a subscriber is
+     * saturated, so the file is only read as fast as it is consumed.
+     *
+     * @param publisher the publisher to emit the records to
+     * @throws IOException if there is an error reading the data from the file
+     */
+    public void readData(RecordPublisher publisher) throws IOException {
+        try {
+            readRecords(publisher::emit);
+            publisher.close();
+        } catch (IOException | RuntimeException e) {
+            publisher.closeExceptionally(e);
+            throw e;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parses every {@code patientId,measurementValue,recordType,timestamp} line and passes the
+     * record to the sink. Lines with a different number of fields are skipped.
+     */
+    private void readRecords(Consumer<PatientRecord> sink) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split(",");
+            if (fields.length == 4) {
+                int patientId = Integer.parseInt(fields[0]);
+                double measurementValue = Double.parseDouble(fields[1]);
+                String recordType = fields[2];
+                long timestamp = Long.parseLong(fields[3]);
+                sink.accept(new PatientRecord(patientId, measurementValue, recordType, timestamp));
+                metrics.recordSample(timestamp);
+            } else {
+                metrics.recordParseError();
+                System.err.println("Ignored: " + line);
+            }
+        }
+    }
+
     @Override
     public void readData(DataStorage dataStorage, String websocketUrl) throws IOException {
         try {
@@ -61,6 +95,7 @@ public class FileDataReader implements DataReader {
             WebSocketClientCode client = new WebSocketClientCode(url, dataStorage);
             client.connectBlocking();
             if (!client.isConnectionSuccessful()) {
+                client.close();
                 throw new IOException("Failed to connect to WebSocket");
             }
         } catch (URISyntaxException | InterruptedException e) {
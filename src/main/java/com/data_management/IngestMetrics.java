@@ -0,0 +1,243 @@
+package com.data_management;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Ingest statistics of a single data reader: processed samples, parse errors and the latency between
+ * the generation timestamp of a sample and the moment it reaches {@link DataStorage}.
+ * <p>
+ * Metrics are disabled by default and can be switched on with {@link #setEnabled(boolean)} or the
+ * {@code cardio.metrics} system property. While disabled, recording costs a single volatile read.
+ * Enabled metrics are registered as JMX beans under {@code com.data_management:type=IngestMetrics}
+ * and can be logged periodically with {@link #startReporting(long, TimeUnit)}.
+ */
+public class IngestMetrics implements IngestMetricsMBean {
+
+    private static final ConcurrentHashMap<String, IngestMetrics> registry = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("cardio.metrics");
+    private static ScheduledExecutorService reporter;
+
+    private final String readerName;
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile boolean registered;
+    private volatile double samplesPerSecond;
+    private long lastReportedCount;
+    private long lastReportTime = System.currentTimeMillis();
+
+    private IngestMetrics(String readerName) {
+        this.readerName = readerName;
+    }
+
+    /**
+     * Returns the metrics of the reader with the given name, creating them on first use.
+     *
+     * @param readerName the name under which the reader reports, e.g. "tcp" or "websocket"
+     * @return the metrics of the reader
+     */
+    public static IngestMetrics forReader(String readerName) {
+        IngestMetrics metrics = registry.computeIfAbsent(readerName, IngestMetrics::new);
+        if (enabled) {
+            metrics.registerMBean();
+        }
+        return metrics;
+    }
+
+    /**
+     * Enables or disables recording for all readers.
+     *
+     * @param enable true to record metrics, false to make recording a no-op
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+        if (enable) {
+            for (IngestMetrics metrics : registry.values()) {
+                metrics.registerMBean();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts logging one line per reader at a fixed rate. Calling this again replaces the previous schedule.
+     *
+     * @param period   the time between two log lines
+     * @param timeUnit the unit of the period
+     */
+    public static synchronized void startReporting(long period, TimeUnit timeUnit) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingest-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(IngestMetrics::report, period, period, timeUnit);
+    }
+
+    /**
+     * Stops the periodic log line.
+     */
+    public static synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Records a sample that has just been stored.
+     *
+     * @param timestamp the generation timestamp of the sample, in milliseconds since the Unix epoch
+     */
+    public void recordSample(long timestamp) {
+        if (!enabled) {
+            return;
+        }
+        samples.increment();
+        latency.record(System.currentTimeMillis() - timestamp);
+    }
+
+    /**
+     * Records a batch of samples that has just been stored.
+     *
+     * @param records the stored records
+     */
+    public void recordSamples(List<PatientRecord> records) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        samples.add(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            latency.record(now - records.get(i).getTimestamp());
+        }
+    }
+
+    /**
+     * Records a message that could not be parsed.
+     */
+    public void recordParseError() {
+        if (enabled) {
+            parseErrors.increment();
+        }
+    }
+
+    @Override
+    public String getReaderName() {
+        return readerName;
+    }
+
+    @Override
+    public long getSampleCount() {
+        return samples.sum();
+    }
+
+    @Override
+    public long getParseErrorCount() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public double getSamplesPerSecond() {
+        return samplesPerSecond;
+    }
+
+    @Override
+    public double getLatencyMeanMillis() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getLatencyP50Millis() {
+        return latency.getPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Millis() {
+        return latency.getPercentile(99);
+    }
+
+    @Override
+    public long getLatencyP999Millis() {
+        return latency.getPercentile(99.9);
+    }
+
+    @Override
+    public long getLatencyMaxMillis() {
+        return latency.getMax();
+    }
+
+    @Override
+    public void reset() {
+        samples.reset();
+        parseErrors.reset();
+        latency.reset();
+        synchronized (this) {
+            lastReportedCount = 0;
+            lastReportTime = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[ingest] %s: %.1f samples/s, %d samples, %d parse errors, latency mean=%.1f ms p50=%d ms p99=%d ms max=%d ms",
+                readerName, samplesPerSecond, getSampleCount(), getParseErrorCount(), getLatencyMeanMillis(),
+                getLatencyP50Millis(), getLatencyP99Millis(), getLatencyMaxMillis());
+    }
+
+    /**
+     * Updates the throughput of every reader and prints one line per reader.
+     */
+    private static void report() {
+        for (IngestMetrics metrics : registry.values()) {
+            metrics.updateThroughput();
+            System.out.println(metrics);
+        }
+    }
+
+    private synchronized void updateThroughput() {
+        long now = System.currentTimeMillis();
+        long count = samples.sum();
+        long elapsed = now - lastReportTime;
+        if (elapsed > 0) {
+            samplesPerSecond = (count - lastReportedCount) * 1000.0 / elapsed;
+        }
+        lastReportedCount = count;
+        lastReportTime = now;
+    }
+
+    private void registerMBean() {
+        if (registered) {
+            return;
+        }
+        synchronized (this) {
+            if (registered) {
+                return;
+            }
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName("com.data_management:type=IngestMetrics,name=" + ObjectName.quote(readerName));
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(this, name);
+                }
+                registered = true;
+            } catch (JMException e) {
+                System.err.println("Could not register ingest metrics for " + readerName + ": " + e.getMessage());
+            }
+        }
+    }
+}
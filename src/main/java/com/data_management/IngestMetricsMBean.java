@@ -0,0 +1,27 @@
+package com.data_management;
+
+/**
+ * JMX view of the ingest statistics of a single data reader.
+ */
+public interface IngestMetricsMBean {
+
+    String getReaderName();
+
+    long getSampleCount();
+
+    long getParseErrorCount();
+
+    double getSamplesPerSecond();
+
+    double getLatencyMeanMillis();
+
+    long getLatencyP50Millis();
+
+    long getLatencyP99Millis();
+
+    long getLatencyP999Millis();
+
+    long getLatencyMaxMillis();
+
+    void reset();
+}
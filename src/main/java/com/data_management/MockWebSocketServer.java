@@ -5,11 +5,20 @@ import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class MockWebSocketServer extends WebSocketServer {
 
+    private final List<String> receivedMessages = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+
     public MockWebSocketServer(InetSocketAddress address) {
         super(address);
+        setReuseAddr(true);
     }
 
     @Override
@@ -25,6 +34,7 @@ public class MockWebSocketServer extends WebSocketServer {
     @Override
     public void onMessage(WebSocket conn, String message) {
         System.out.println("Message received: " + message);
+        receivedMessages.add(message);
     }
 
     @Override
@@ -35,5 +45,19 @@ public class MockWebSocketServer extends WebSocketServer {
     @Override
     public void onStart() {
         System.out.println("Server started");
+        started.countDown();
+    }
+
+    /**
+     * Waits until the server is bound and accepts connections.
+     *
+     * @return true if the server started within the timeout
+     */
+    public boolean awaitStart(long timeout, TimeUnit unit) throws InterruptedException {
+        return started.await(timeout, unit);
+    }
+
+    public List<String> getReceivedMessages() {
+        return new ArrayList<>(receivedMessages);
     }
 }
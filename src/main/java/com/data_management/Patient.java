@@ -7,10 +7,13 @@ import java.util.List;
  * Represents a patient and manages their medical records.
  * This class stores patient-specific data, allowing for the addition and
  * retrieval of medical records based on specified criteria.
+ * Records can be added and read concurrently from different threads.
  */
 public class Patient {
     private int patientId;
     private List<PatientRecord> patientRecords;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+    private boolean sortedByTimestamp = true; // Records normally arrive in time order
 
     /**
      * Constructs a new Patient with a specified ID.
@@ -33,28 +36,103 @@ public class Patient {
      * @param timestamp        the time at which the measurement was taken, in milliseconds since UNIX epoch
      */
     public void addRecord(double measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
+        addRecord(new PatientRecord(this.patientId, measurementValue, recordType, timestamp));
+    }
+
+    /**
+     * Adds an already created record to this patient's list of medical records.
+     *
+     * @param record the record to store; must belong to this patient
+     * @return the position of the record in the order records were added
+     * @throws IllegalArgumentException if the record belongs to a different patient
+     */
+    public synchronized int addRecord(PatientRecord record) {
+        if (record.getPatientId() != this.patientId) {
+            throw new IllegalArgumentException("Record of patient " + record.getPatientId()
+                    + " cannot be added to patient " + this.patientId);
+        }
+        if (record.getTimestamp() < lastTimestamp) {
+            sortedByTimestamp = false;
+        }
         this.patientRecords.add(record);
+        if (record.getTimestamp() > lastTimestamp) {
+            lastTimestamp = record.getTimestamp();
+        }
+        return patientRecords.size() - 1;
     }
 
     /**
      * Retrieves a list of PatientRecord objects for this patient that fall within a specified time range.
      * The method filters records based on the start and end times provided.
+     * As long as records were added in time order, the start of the range is found by binary search,
+     * so the cost depends on the number of records in the range rather than on the full history.
      *
      * @param startTime the start of the time range, in milliseconds since UNIX epoch
      * @param endTime   the end of the time range, in milliseconds since UNIX epoch
      * @return a list of PatientRecord objects that fall within the specified time range
      */
-    public List<PatientRecord> getRecords(long startTime, long endTime) {
+    public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
         List<PatientRecord> recordsInRange = new ArrayList<>();
-        for (PatientRecord record : patientRecords) {
-            if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
-                recordsInRange.add(record);
+        if (!sortedByTimestamp) {
+            for (PatientRecord record : patientRecords) {
+                if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
+                    recordsInRange.add(record);
+                }
             }
+            return recordsInRange;
+        }
+        for (int i = firstIndexAtOrAfter(startTime); i < patientRecords.size(); i++) {
+            PatientRecord record = patientRecords.get(i);
+            if (record.getTimestamp() > endTime) {
+                break;
+            }
+            recordsInRange.add(record);
         }
         return recordsInRange;
     }
 
+    /**
+     * Returns the number of records added to this patient so far.
+     *
+     * @return the number of records
+     */
+    public synchronized int getRecordCount() {
+        return patientRecords.size();
+    }
+
+    /**
+     * Returns the records added after the first {@code index} records, in the order they were added.
+     * Unlike a time range, this includes records with the same or an older timestamp than records
+     * that were already read, so a reader that remembers the count never misses a record.
+     *
+     * @param index the number of records to skip
+     * @return the records added since then
+     */
+    public synchronized List<PatientRecord> getRecordsSince(int index) {
+        if (index >= patientRecords.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(patientRecords.subList(index, patientRecords.size()));
+    }
+
+    /**
+     * Finds the index of the first record with a timestamp of at least the given time.
+     * Only valid while the records are sorted by timestamp.
+     */
+    private int firstIndexAtOrAfter(long time) {
+        int low = 0;
+        int high = patientRecords.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (patientRecords.get(mid).getTimestamp() < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Returns the patient ID.
      *
@@ -64,4 +142,13 @@ public class Patient {
         return patientId;
     }
 
+    /**
+     * Returns the timestamp of the most recent record of this patient.
+     *
+     * @return the latest record timestamp, or {@link Long#MIN_VALUE} if the patient has no records
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
 }
@@ -0,0 +1,81 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A {@link Flow.Publisher} of patient record batches, used by readers to push data to subscribers
+ * such as {@link DataStorageProcessor} and {@link com.alerts.AlertSubscriber}.
+ * <p>
+ * Records are collected into batches of a fixed size before they are published. Publishing is
+ * demand driven: every subscriber has a bounded buffer, and when a slow subscriber's buffer is
+ * full, {@link #emit(PatientRecord)} blocks the reader until the subscriber requests more. A slow
+ * consumer therefore throttles the source instead of causing unbounded buffering.
+ */
+public class RecordPublisher extends SubmissionPublisher<List<PatientRecord>> {
+
+    private final int batchSize;
+    private List<PatientRecord> batch;
+
+    /**
+     * Creates a publisher that delivers batches on the common pool with the default buffer capacity.
+     *
+     * @param batchSize the number of records per published batch
+     */
+    public RecordPublisher(int batchSize) {
+        this(ForkJoinPool.commonPool(), Flow.defaultBufferSize(), batchSize);
+    }
+
+    /**
+     * Creates a publisher.
+     *
+     * @param executor          the executor used to deliver batches to subscribers
+     * @param maxBufferCapacity the maximum number of batches buffered per subscriber
+     * @param batchSize         the number of records per published batch
+     */
+    public RecordPublisher(Executor executor, int maxBufferCapacity, int batchSize) {
+        super(executor, maxBufferCapacity);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Adds a record to the current batch and publishes the batch once it is full.
+     * Blocks while a subscriber has no buffer space left.
+     *
+     * @param record the record to publish
+     */
+    public synchronized void emit(PatientRecord record) {
+        batch.add(record);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Publishes the current batch, even if it is not full yet.
+     */
+    public synchronized void flush() {
+        if (!batch.isEmpty()) {
+            List<PatientRecord> full = batch;
+            batch = new ArrayList<>(batchSize);
+            submit(full);
+        }
+    }
+
+    /**
+     * Publishes any remaining records and completes all subscribers.
+     */
+    @Override
+    public void close() {
+        flush();
+        super.close();
+    }
+}
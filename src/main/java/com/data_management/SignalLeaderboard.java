@@ -0,0 +1,55 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The latest record of every patient for one signal, ordered by value.
+ * Updates cost O(log n) and reading the K highest or lowest patients costs O(log n + K), so a ward overview
+ * can be refreshed often without scanning all patients.
+ */
+class SignalLeaderboard {
+    private static final Comparator<PatientRecord> BY_VALUE = Comparator
+            .comparingDouble(PatientRecord::getMeasurementValue)
+            .thenComparingInt(PatientRecord::getPatientId);
+
+    private final Map<Integer, PatientRecord> latest = new HashMap<>();
+    private final TreeSet<PatientRecord> ranking = new TreeSet<>(BY_VALUE);
+
+    /**
+     * Replaces the patient's entry if the record is at least as new as the current one.
+     * Older records arriving late are ignored.
+     */
+    synchronized void update(PatientRecord record) {
+        PatientRecord current = latest.get(record.getPatientId());
+        if (current != null) {
+            if (current.getTimestamp() > record.getTimestamp()) {
+                return;
+            }
+            ranking.remove(current);
+        }
+        latest.put(record.getPatientId(), record);
+        ranking.add(record);
+    }
+
+    synchronized List<PatientRecord> top(int k) {
+        return first(ranking.descendingIterator(), k);
+    }
+
+    synchronized List<PatientRecord> bottom(int k) {
+        return first(ranking.iterator(), k);
+    }
+
+    private static List<PatientRecord> first(Iterator<PatientRecord> iterator, int k) {
+        List<PatientRecord> records = new ArrayList<>(Math.max(0, k));
+        while (records.size() < k && iterator.hasNext()) {
+            records.add(iterator.next());
+        }
+        return records;
+    }
+}
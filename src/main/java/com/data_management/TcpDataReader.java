@@ -0,0 +1,494 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reads patient data streamed by {@link com.cardio_generator.outputs.TcpOutputStrategy} servers.
+ * <p>
+ * A single thread drives any number of upstream connections through a {@link Selector}.
+ * Every connection reads into its own direct {@link ByteBuffer}; newline-delimited records in the
+ * format {@code patientId,timestamp,label,data} are parsed straight from the buffer and stored in
+ * {@link DataStorage} in batches, one batch per selector wake-up. Dropped connections are
+ * re-established with exponential backoff.
+ * <p>
+ * Records can instead be emitted to a {@link RecordPublisher}. The selector thread then blocks while
+ * a subscriber is saturated, which stops reading and lets TCP flow control throttle the simulators.
+ */
+public class TcpDataReader implements DataReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final int MAX_CACHED_LABELS = 64;
+    private static final long INITIAL_RECONNECT_DELAY_MS = 500;
+    private static final long MAX_RECONNECT_DELAY_MS = 30000;
+
+    /** Powers of ten that are exactly representable as doubles, used by the fast number parser. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Endpoint> newEndpoints = new ConcurrentLinkedQueue<>();
+    private final List<PatientRecord> batch = new ArrayList<>();
+    private final List<byte[]> labelBytes = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+    private Selector selector;
+    private Thread readerThread;
+    private DataStorage dataStorage;
+    private RecordPublisher publisher;
+    private volatile boolean running;
+    private volatile long parseErrors;
+    private final IngestMetrics metrics = IngestMetrics.forReader("tcp");
+
+    /**
+     * Connects to one or more simulator TCP endpoints and starts storing their data in the background.
+     * Further endpoints can be added later by calling this method again with the same storage.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @param endpoints   comma separated list of {@code host:port} or {@code tcp://host:port} endpoints
+     * @throws IOException if the selector cannot be opened or an endpoint is malformed
+     */
+    @Override
+    public synchronized void readData(DataStorage dataStorage, String endpoints) throws IOException {
+        if (publisher != null || (this.dataStorage != null && this.dataStorage != dataStorage)) {
+            throw new IllegalStateException("TcpDataReader is already storing data in another DataStorage");
+        }
+        List<InetSocketAddress> addresses = parseEndpoints(endpoints);
+        this.dataStorage = dataStorage;
+        connect(addresses);
+    }
+
+    /**
+     * Connects to one or more simulator TCP endpoints and starts emitting their records to the
+     * publisher in the background, one batch per selector wake-up. Subscribers should be attached
+     * before calling this method. {@link #close()} closes the publisher, which completes the subscribers.
+     *
+     * @param publisher the publisher to emit the records to
+     * @param endpoints comma separated list of {@code host:port} or {@code tcp://host:port} endpoints
+     * @throws IOException if the selector cannot be opened or an endpoint is malformed
+     */
+    public synchronized void readData(RecordPublisher publisher, String endpoints) throws IOException {
+        if (dataStorage != null || (this.publisher != null && this.publisher != publisher)) {
+            throw new IllegalStateException("TcpDataReader is already emitting data to another target");
+        }
+        List<InetSocketAddress> addresses = parseEndpoints(endpoints);
+        this.publisher = publisher;
+        connect(addresses);
+    }
+
+    private void connect(List<InetSocketAddress> addresses) throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+            running = true;
+            readerThread = new Thread(this::runSelectorLoop, "tcp-data-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+        for (InetSocketAddress address : addresses) {
+            newEndpoints.add(new Endpoint(address));
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the reader thread and closes all upstream connections.
+     */
+    public synchronized void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (readerThread != null) {
+            try {
+                readerThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Returns the number of lines that could not be parsed so far.
+     *
+     * @return the number of malformed lines
+     */
+    public long getParseErrors() {
+        return parseErrors;
+    }
+
+    private static List<InetSocketAddress> parseEndpoints(String endpoints) throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String endpoint : endpoints.split(",")) {
+            String trimmed = endpoint.trim();
+            if (trimmed.startsWith("tcp://")) {
+                trimmed = trimmed.substring(6);
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IOException("Invalid TCP endpoint: " + endpoint);
+            }
+            try {
+                int port = Integer.parseInt(trimmed.substring(separator + 1));
+                addresses.add(new InetSocketAddress(trimmed.substring(0, separator), port));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid port in TCP endpoint: " + endpoint, e);
+            }
+        }
+        return addresses;
+    }
+
+    private void runSelectorLoop() {
+        try {
+            while (running) {
+                registerNewEndpoints();
+                long now = System.currentTimeMillis();
+                long timeout = connectDueEndpoints(now);
+                selector.select(timeout);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Endpoint endpoint = (Endpoint) key.attachment();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isConnectable()) {
+                        finishConnect(endpoint, key);
+                    } else if (key.isReadable()) {
+                        read(endpoint);
+                    }
+                }
+                flushBatch();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("TCP reader stopped: " + e.getMessage());
+        } finally {
+            for (Endpoint endpoint : endpoints) {
+                closeChannel(endpoint);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing selector: " + e.getMessage());
+            }
+        }
+    }
+
+    private void registerNewEndpoints() {
+        Endpoint endpoint;
+        while ((endpoint = newEndpoints.poll()) != null) {
+            endpoints.add(endpoint);
+        }
+    }
+
+    /**
+     * Starts connecting every endpoint whose reconnect delay has passed.
+     *
+     * @return the select timeout until the next pending connection attempt, or 0 to block indefinitely
+     */
+    private long connectDueEndpoints(long now) {
+        long timeout = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.channel != null) {
+                continue;
+            }
+            if (endpoint.nextAttempt <= now) {
+                startConnect(endpoint, now);
+            }
+            if (endpoint.channel == null) {
+                long wait = Math.max(1, endpoint.nextAttempt - now);
+                timeout = timeout == 0 ? wait : Math.min(timeout, wait);
+            }
+        }
+        return timeout;
+    }
+
+    private void startConnect(Endpoint endpoint, long now) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            endpoint.channel = channel;
+            if (channel.connect(endpoint.address)) {
+                channel.register(selector, SelectionKey.OP_READ, endpoint);
+                onConnected(endpoint);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, endpoint);
+            }
+        } catch (IOException e) {
+            onDisconnected(endpoint, now, e.getMessage());
+        }
+    }
+
+    private void finishConnect(Endpoint endpoint, SelectionKey key) {
+        try {
+            if (endpoint.channel.finishConnect()) {
+                key.interestOps(SelectionKey.OP_READ);
+                onConnected(endpoint);
+            }
+        } catch (IOException e) {
+            onDisconnected(endpoint, System.currentTimeMillis(), e.getMessage());
+        }
+    }
+
+    private void onConnected(Endpoint endpoint) {
+        System.out.println("Connected to TCP endpoint " + endpoint.address);
+        endpoint.reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+        endpoint.buffer.clear();
+    }
+
+    private void onDisconnected(Endpoint endpoint, long now, String reason) {
+        closeChannel(endpoint);
+        endpoint.nextAttempt = now + endpoint.reconnectDelayMs;
+        System.err.println("TCP endpoint " + endpoint.address + " unavailable (" + reason + "), retrying in "
+                + endpoint.reconnectDelayMs + " ms");
+        endpoint.reconnectDelayMs = Math.min(endpoint.reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+    }
+
+    private void closeChannel(Endpoint endpoint) {
+        if (endpoint.channel != null) {
+            try {
+                endpoint.channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing TCP channel: " + e.getMessage());
+            }
+            endpoint.channel = null;
+        }
+    }
+
+    private void read(Endpoint endpoint) {
+        ByteBuffer buffer = endpoint.buffer;
+        int bytesRead;
+        try {
+            bytesRead = endpoint.channel.read(buffer);
+        } catch (IOException e) {
+            onDisconnected(endpoint, System.currentTimeMillis(), e.getMessage());
+            return;
+        }
+        if (bytesRead < 0) {
+            onDisconnected(endpoint, System.currentTimeMillis(), "connection closed");
+            return;
+        }
+
+        buffer.flip();
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        buffer.position(lineStart);
+        if (lineStart == 0 && limit == buffer.capacity()) {
+            // A single line does not fit into the buffer; drop it
+            parseErrors++;
+            metrics.recordParseError();
+            buffer.clear();
+        } else {
+            buffer.compact();
+        }
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Parses one {@code patientId,timestamp,label,data} line from {@code buffer[start, end)} without
+     * copying it. Values may carry a trailing unit such as {@code %}; non-numeric data is rejected.
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        int firstComma = indexOf(buffer, start, end, (byte) ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, firstComma + 1, end, (byte) ',');
+        int thirdComma = secondComma < 0 ? -1 : indexOf(buffer, secondComma + 1, end, (byte) ',');
+        if (thirdComma < 0) {
+            parseErrors++;
+            metrics.recordParseError();
+            return;
+        }
+        long patientId = parseLong(buffer, start, firstComma);
+        long timestamp = parseLong(buffer, firstComma + 1, secondComma);
+        int valueEnd = end;
+        if (valueEnd > thirdComma + 1 && buffer.get(valueEnd - 1) == '%') {
+            valueEnd--;
+        }
+        double value = parseDouble(buffer, thirdComma + 1, valueEnd);
+        if (patientId == Long.MIN_VALUE || patientId > Integer.MAX_VALUE
+                || timestamp == Long.MIN_VALUE || Double.isNaN(value)) {
+            parseErrors++;
+            metrics.recordParseError();
+            return;
+        }
+        String label = label(buffer, secondComma + 1, thirdComma);
+        batch.add(new PatientRecord((int) patientId, value, label, timestamp));
+    }
+
+    private void flushBatch() {
+        if (!batch.isEmpty()) {
+            if (publisher != null) {
+                for (PatientRecord record : batch) {
+                    publisher.emit(record);
+                }
+                publisher.flush();
+            } else {
+                dataStorage.addPatientRecords(batch);
+            }
+            metrics.recordSamples(batch);
+            batch.clear();
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a non-negative decimal integer.
+     *
+     * @return the parsed value, or {@link Long#MIN_VALUE} if the field is not a valid number
+     */
+    private static long parseLong(ByteBuffer buffer, int start, int end) {
+        if (start == end || end - start > 18) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a decimal number. Plain numbers with at most 15 significant digits are converted
+     * exactly without allocating; anything else falls back to {@link Double#parseDouble(String)}.
+     *
+     * @return the parsed value, or {@link Double#NaN} if the field is not a valid number
+     */
+    private static double parseDouble(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return Double.NaN;
+        }
+        int i = start;
+        boolean negative = buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                if (digits == 15) {
+                    return parseDoubleSlow(buffer, start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else {
+                // Exponents and other notations take the slow path
+                return parseDoubleSlow(buffer, start, end);
+            }
+        }
+        if (fractionDigits >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(buffer, start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Returns the label stored in {@code buffer[start, end)}, reusing a previously seen String
+     * so that the few distinct record types do not allocate a new String per line.
+     */
+    private String label(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int l = 0; l < labelBytes.size(); l++) {
+            byte[] known = labelBytes.get(l);
+            if (known.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && known[i] == buffer.get(start + i)) {
+                i++;
+            }
+            if (i == length) {
+                return labels.get(l);
+            }
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        String label = new String(bytes, StandardCharsets.UTF_8);
+        if (labels.size() < MAX_CACHED_LABELS) {
+            label = label.intern();
+            labelBytes.add(bytes);
+            labels.add(label);
+        }
+        return label;
+    }
+
+    /**
+     * Connection state of a single upstream simulator.
+     */
+    private static class Endpoint {
+        private final InetSocketAddress address;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private SocketChannel channel;
+        private long nextAttempt;
+        private long reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+
+        private Endpoint(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+}
@@ -4,15 +4,60 @@ import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
-
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket client that reads patient data from a server and stores it in a {@link DataStorage}.
+ * <p>
+ * When the connection drops, the client keeps the stored history and reconnects automatically
+ * with exponential backoff. After every (re)connect it sends a resume message containing the
+ * latest timestamp per patient, so a server that supports it can replay only the missing data.
+ * <p>
+ * Records can instead be emitted to a {@link RecordPublisher}, one batch per frame. The WebSocket
+ * thread then blocks while a subscriber is saturated, so the server is only read as fast as the
+ * data is consumed.
+ */
 public class WebSocketClientCode extends WebSocketClient {
 
+    /** Prefix of the message that tells the server from which point on data is missing. */
+    public static final String RESUME_PREFIX = "resume:";
+
+    private static final long INITIAL_RECONNECT_DELAY_MS = 500;
+    private static final long MAX_RECONNECT_DELAY_MS = 30000;
+
     private DataStorage dataStorage;
-    private boolean connectionSuccessful;
+    private final RecordPublisher publisher;
+    private volatile boolean connectionSuccessful;
+    private volatile boolean autoReconnect = true;
+    // Set once close() was called by the user; a closed client never reconnects again
+    private volatile boolean closed;
+    // The thread running reconnect(), whose internal close of the old connection must not stop reconnecting
+    private volatile Thread reconnectThread;
+    private long reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+    private ScheduledExecutorService reconnectScheduler;
+    private final IngestMetrics metrics = IngestMetrics.forReader("websocket");
 
     public WebSocketClientCode(URI serverUri, DataStorage dataStorage) {
+        this(serverUri, dataStorage, null);
+    }
+
+    /**
+     * Creates a client that emits the received records to a publisher instead of storing them.
+     * The storage is only read to build the resume point, so it should be the one a subscriber
+     * such as {@link DataStorageProcessor} stores the records in. Closing the client closes the
+     * publisher, which completes the subscribers.
+     *
+     * @param serverUri   the URI of the WebSocket server
+     * @param dataStorage the storage the published records end up in
+     * @param publisher   the publisher to emit the records to
+     */
+    public WebSocketClientCode(URI serverUri, DataStorage dataStorage, RecordPublisher publisher) {
         super(serverUri);
         this.dataStorage = dataStorage;
+        this.publisher = publisher;
         this.connectionSuccessful = false;
     }
 
@@ -20,10 +65,30 @@ public class WebSocketClientCode extends WebSocketClient {
     public void onOpen(ServerHandshake handshake) {
         System.out.println("Connected to WebSocket server");
         connectionSuccessful = true;
+        synchronized (this) {
+            reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+        }
+        sendResumePoint();
     }
 
     @Override
     public void onMessage(String message) {
+        // A frame either holds a single record or a batch of newline separated records
+        if (message.indexOf('\n') < 0) {
+            parseRecord(message);
+        } else {
+            for (String record : message.split("\n")) {
+                if (!record.isEmpty()) {
+                    parseRecord(record);
+                }
+            }
+        }
+        if (publisher != null) {
+            publisher.flush();
+        }
+    }
+
+    private void parseRecord(String message) {
 
         // Parse the incoming message and store the parsed information using DataStorage
         String[] parts = message.split(",");
@@ -37,12 +102,19 @@ public class WebSocketClientCode extends WebSocketClient {
                 String recordType = parts[2];
 
                 long timestamp = Long.parseLong(parts[3]);
-                dataStorage.addPatientData(patientId, measurementValue, recordType, timestamp);
+                if (publisher != null) {
+                    publisher.emit(new PatientRecord(patientId, measurementValue, recordType, timestamp));
+                } else {
+                    dataStorage.addPatientData(patientId, measurementValue, recordType, timestamp);
+                }
+                metrics.recordSample(timestamp);
 
             } catch (NumberFormatException e) {
+                metrics.recordParseError();
                 System.err.println("Error parsing message: " + message);
             }
         } else {
+            metrics.recordParseError();
             System.err.println("Invalid message format: " + message);
         }
     }
@@ -50,7 +122,11 @@ public class WebSocketClientCode extends WebSocketClient {
     @Override
     public void onClose(int code, String reason, boolean remote) {
         System.out.println("Disconnected from WebSocket server");
-        dataStorage.clear();
+        connectionSuccessful = false;
+        // The stored history stays intact; only the missing gap is requested after reconnecting
+        if (autoReconnect) {
+            scheduleReconnect();
+        }
     }
 
     @Override
@@ -58,7 +134,113 @@ public class WebSocketClientCode extends WebSocketClient {
         ex.printStackTrace();
     }
 
+    /**
+     * Closes the connection and stops any further reconnection attempts.
+     */
+    @Override
+    public void close() {
+        if (Thread.currentThread() == reconnectThread) {
+            super.close();
+            return;
+        }
+        closed = true;
+        stopReconnecting();
+        super.close();
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+
+    /**
+     * Returns whether the client is connected, i.e. the last connection attempt succeeded and
+     * the connection has not been closed since.
+     */
     public boolean isConnectionSuccessful() {
         return connectionSuccessful;
     }
+
+    /**
+     * Enables or disables automatic reconnection after the connection is lost.
+     *
+     * @param autoReconnect true to reconnect automatically, false otherwise
+     * @throws IllegalStateException if reconnection is enabled after the client was closed
+     */
+    public void setAutoReconnect(boolean autoReconnect) {
+        if (autoReconnect && closed) {
+            throw new IllegalStateException("Cannot reconnect a closed WebSocket client");
+        }
+        this.autoReconnect = autoReconnect;
+    }
+
+    /**
+     * Builds the resume message for the current contents of the data storage.
+     * The format is {@code resume:<patientId>=<timestamp>;<patientId>=<timestamp>...}.
+     *
+     * @return the resume message, or null if no data has been stored yet
+     */
+    public String buildResumeMessage() {
+        Map<Integer, Long> lastTimestamps = dataStorage.getLastTimestamps();
+        if (lastTimestamps.isEmpty()) {
+            return null;
+        }
+        StringBuilder message = new StringBuilder(RESUME_PREFIX);
+        for (Map.Entry<Integer, Long> entry : lastTimestamps.entrySet()) {
+            if (message.length() > RESUME_PREFIX.length()) {
+                message.append(';');
+            }
+            message.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return message.toString();
+    }
+
+    private void sendResumePoint() {
+        String resumeMessage = buildResumeMessage();
+        if (resumeMessage != null && isOpen()) {
+            send(resumeMessage);
+        }
+    }
+
+    /**
+     * Schedules a reconnection attempt and doubles the delay for the next one, up to a maximum.
+     * Reconnecting is not allowed from the WebSocket thread itself, so a separate thread is used.
+     */
+    private synchronized void scheduleReconnect() {
+        if (reconnectScheduler == null) {
+            reconnectScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "websocket-reconnect");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (reconnectScheduler.isShutdown()) {
+            return;
+        }
+        long delay = reconnectDelayMs;
+        reconnectDelayMs = Math.min(reconnectDelayMs * 2, MAX_RECONNECT_DELAY_MS);
+        System.out.println("Reconnecting to WebSocket server in " + delay + " ms");
+        reconnectScheduler.schedule(() -> {
+            if (!autoReconnect) {
+                return;
+            }
+            reconnectThread = Thread.currentThread();
+            try {
+                reconnectBlocking();
+            } catch (InterruptedException e) {
+                // Interrupted by close(); the check below closes whatever the attempt left open
+            } finally {
+                // A close() while reconnecting may have hit the old connection; the new one must not stay open
+                if (!autoReconnect) {
+                    super.close();
+                }
+                reconnectThread = null;
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopReconnecting() {
+        autoReconnect = false;
+        if (reconnectScheduler != null) {
+            reconnectScheduler.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.Strategy.ECGStrategy;
+import com.alerts.Strategy.HeartRateStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AlertAllocationTest {
+    private static final int ALERTS = 100000;
+
+    @Test
+    void testRaisingAnAlertOnlyAllocatesTheAlert() {
+        com.sun.management.ThreadMXBean threads = allocationCounters();
+
+        Patient patient = new Patient(4711);
+        PatientRecord ecg = new PatientRecord(4711, 2.0, "ECG", 1000);
+        PatientRecord heartRate = new PatientRecord(4711, 130.0, "HeartRate", 1000);
+        ECGStrategy ecgStrategy = new ECGStrategy();
+        HeartRateStrategy heartRateStrategy = new HeartRateStrategy();
+        List<Alert> alerts = new ArrayList<>(2 * ALERTS);
+
+        // Warm up so the measured loop runs compiled code
+        for (int i = 0; i < ALERTS / 2; i++) {
+            ecgStrategy.checkAlert(patient, ecg, alerts);
+            heartRateStrategy.checkAlert(patient, heartRate, alerts);
+        }
+        alerts.clear();
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ALERTS; i++) {
+            ecgStrategy.checkAlert(patient, ecg, alerts);
+            heartRateStrategy.checkAlert(patient, heartRate, alerts);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(2 * ALERTS, alerts.size());
+        double bytesPerAlert = (double) allocated / alerts.size();
+        // An alert object is 32 to 48 bytes depending on the JVM's pointer compression
+        assertTrue(bytesPerAlert <= 56, "Allocated " + bytesPerAlert + " bytes per alert");
+        assertEquals(4711, alerts.get(0).getPatientIdAsInt());
+    }
+
+    @Test
+    void testEvaluatingAndStoringAnAlertDoesNotFormatThePatientId() {
+        com.sun.management.ThreadMXBean threads = allocationCounters();
+
+        // Warm up so the measured evaluation runs compiled code
+        for (int round = 0; round < 3; round++) {
+            AlertGenerator warmUp = new AlertGenerator(new DataStorage());
+            warmUp.setSuppressionWindow(1);
+            warmUp.evaluateData(patientWithHighHeartRates(9000 + round, ALERTS / 4));
+        }
+
+        AlertGenerator alertGenerator = new AlertGenerator(new DataStorage());
+        // Readings are further apart than the cooldown, so every alert passes the suppressor and is stored
+        alertGenerator.setSuppressionWindow(1);
+        Patient patient = patientWithHighHeartRates(4711, ALERTS / 2);
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        alertGenerator.evaluateData(patient);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        List<Alert> stored = alertGenerator.getAlertStore().getAll();
+        assertEquals(ALERTS / 2, stored.size());
+        // The alert, its store entry, four index nodes and its suppression episode take under 400 bytes
+        double bytesPerAlert = (double) allocated / stored.size();
+        assertTrue(bytesPerAlert <= 450, "Allocated " + bytesPerAlert + " bytes per stored alert");
+
+        // The store and suppressor key alerts by the numeric patient ID, so the String form is only
+        // created when a caller first asks for it, and then reused
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (Alert alert : stored) {
+            alert.getPatientId();
+        }
+        double bytesPerFirstCall = (double) (threads.getThreadAllocatedBytes(threadId) - before) / stored.size();
+        assertTrue(bytesPerFirstCall >= 24, "Only " + bytesPerFirstCall + " bytes per alert for formatting its patient ID");
+        Alert first = stored.get(0);
+        assertEquals("4711", first.getPatientId());
+        assertSame(first.getPatientId(), first.getPatientId());
+    }
+
+    private static Patient patientWithHighHeartRates(int patientId, int records) {
+        Patient patient = new Patient(patientId);
+        for (int i = 0; i < records; i++) {
+            patient.addRecord(new PatientRecord(patientId, 130.0, "HeartRate", 1000 + 10L * i));
+        }
+        return patient;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounters() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Allocation counters are not available");
+        return threads;
+    }
+}
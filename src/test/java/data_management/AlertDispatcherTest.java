@@ -0,0 +1,121 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertDispatcher;
+import com.alerts.AlertStore;
+import com.alerts.AlertConditions;
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Factory.BloodPressureAlertFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertDispatcherTest {
+    private AlertDispatcher dispatcher;
+    private final CountDownLatch releaseBulk = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AlertDispatcher(4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseBulk.countDown();
+        dispatcher.stop();
+    }
+
+    @Test
+    void testHighPriorityAlertsBypassBlockedBulkLane() throws InterruptedException {
+        CountDownLatch highDelivered = new CountDownLatch(1);
+        dispatcher.addSink(alert -> {
+            if ("High".equals(alert.getPriority())) {
+                highDelivered.countDown();
+            } else {
+                awaitRelease();
+            }
+        });
+        dispatcher.start();
+
+        dispatcher.dispatch(new Alert(1, "Bulk", 1000, "Low"));
+        dispatcher.dispatch(new Alert(2, "Abnormal ECG", 2000, "High"));
+
+        assertTrue(highDelivered.await(5, TimeUnit.SECONDS), "High priority alert should not wait for the bulk lane");
+    }
+
+    @Test
+    void testCriticalAlertIsNotDelayedByNormalBacklog() throws InterruptedException {
+        CountDownLatch criticalDelivered = new CountDownLatch(1);
+        dispatcher.addSink(alert -> {
+            if (AlertConditions.CRITICAL_BLOOD_PRESSURE.equals(alert.getCondition())) {
+                criticalDelivered.countDown();
+            } else {
+                awaitRelease();
+            }
+        });
+        dispatcher.start();
+
+        // Fills the normal lane behind a sink that is stuck on the first trend alert
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(new Alert(1, "Rising Systolic Trend", i, AlertConditions.PRIORITY_NORMAL));
+        }
+        Alert critical = BloodPressureAlertFactory.getInstance().createAlert(1, AlertConditions.CRITICAL_BLOOD_PRESSURE, 6);
+        assertTrue(dispatcher.dispatch(critical));
+
+        assertTrue(criticalDelivered.await(5, TimeUnit.SECONDS), "A critical alert should not wait for trend alerts");
+        assertTrue(dispatcher.getDroppedCount() > 0, "The normal lane should have been full");
+    }
+
+    @Test
+    void testFullLaneDropsInsteadOfBlocking() {
+        CountDownLatch firstTaken = new CountDownLatch(1);
+        dispatcher.addSink(alert -> {
+            firstTaken.countDown();
+            awaitRelease();
+        });
+        dispatcher.start();
+
+        assertTrue(dispatcher.dispatch(new Alert(1, "Bulk", 0, "Low")));
+        assertDoesNotThrow(() -> firstTaken.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(dispatcher.dispatch(new Alert(1, "Bulk", i, "Low")));
+        }
+
+        assertFalse(dispatcher.dispatch(new Alert(1, "Bulk", 5, "Low")));
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void testStoredAlertsAreDeliveredInOrderOnStop() throws InterruptedException {
+        List<AlertInterface> received = new CopyOnWriteArrayList<>();
+        AlertStore store = new AlertStore();
+        dispatcher.addSink(received::add);
+        dispatcher.attach(store);
+        dispatcher.start();
+
+        for (int i = 0; i < 3; i++) {
+            store.add(new Alert(7, "High Heart Rate", i, "High"));
+        }
+        dispatcher.stop();
+
+        assertEquals(3, received.size());
+        assertEquals(0, received.get(0).getTimestamp());
+        assertEquals(2, received.get(2).getTimestamp());
+        assertEquals(3, dispatcher.getDeliveredCount());
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseBulk.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
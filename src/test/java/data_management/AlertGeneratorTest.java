@@ -1,18 +1,29 @@
 package data_management;
 
 import com.alerts.*;
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Decorator.RepeatedAlertDecorator;
+import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.BaselineAnomalyStrategy;
+import com.alerts.Strategy.SlopeTrendStrategy;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 class AlertGeneratorTest {
@@ -32,7 +43,7 @@ class AlertGeneratorTest {
         List<PatientRecord> records = Collections.singletonList(
                 new PatientRecord(1, 101.0, "HeartRate", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -46,7 +57,7 @@ class AlertGeneratorTest {
         List<PatientRecord> records = Collections.singletonList(
                 new PatientRecord(1, 80.0, "HeartRate", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -60,7 +71,7 @@ class AlertGeneratorTest {
                 new PatientRecord(1, 185.0, "Systolic", System.currentTimeMillis()),
                 new PatientRecord(1, 125.0, "Diastolic", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -71,7 +82,7 @@ class AlertGeneratorTest {
 
     @Test
     void testNoRecordsNoAlert() {
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(Collections.emptyList());
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(Collections.emptyList());
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -84,7 +95,7 @@ class AlertGeneratorTest {
         List<PatientRecord> records = Collections.singletonList(
                 new PatientRecord(1, 70.0, "Systolic", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -98,7 +109,7 @@ class AlertGeneratorTest {
         List<PatientRecord> records = Collections.singletonList(
                 new PatientRecord(1, 89.0, "Saturation", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -112,7 +123,7 @@ class AlertGeneratorTest {
         List<PatientRecord> records = Collections.singletonList(
                 new PatientRecord(1, 2.0, "ECG", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -129,7 +140,7 @@ class AlertGeneratorTest {
                 new PatientRecord(1, 185.0, "Systolic", System.currentTimeMillis()),
                 new PatientRecord(1, 125.0, "Diastolic", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -143,18 +154,51 @@ class AlertGeneratorTest {
 
     @Test
     void testRapidBloodSaturationDropAlert() {
+        long now = System.currentTimeMillis();
         List<PatientRecord> records = Arrays.asList(
-                new PatientRecord(1, 97.0, "Saturation", System.currentTimeMillis() - 600000),
-                new PatientRecord(1, 91.0, "Saturation", System.currentTimeMillis())
+                new PatientRecord(1, 97.0, "Saturation", now - 600000),
+                new PatientRecord(1, 91.0, "Saturation", now)
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
         List<Alert> alerts = alertGenerator.getAlerts();
+        assertEquals(2, alerts.size());
+        assertEquals("Low Blood Saturation", alerts.get(0).getCondition());
+        assertEquals("Rapid Blood Saturation Drop", alerts.get(1).getCondition());
+    }
+
+    @Test
+    void testRapidSaturationDropFromWindowPeak() {
+        Patient patient = new Patient(1);
+        long now = System.currentTimeMillis();
+        patient.addRecord(95.0, "Saturation", now - 400000);
+        patient.addRecord(99.0, "Saturation", now - 300000);
+        patient.addRecord(96.0, "Saturation", now - 200000);
+        patient.addRecord(94.0, "Saturation", now - 100000);
+
+        alertGenerator.evaluateData(patient);
+
+        // Only 1 point below the first reading, but 5 below the peak
+        List<Alert> alerts = alertGenerator.getAlerts();
+        assertEquals(1, alerts.size());
         assertEquals("Rapid Blood Saturation Drop", alerts.get(0).getCondition());
     }
 
+    @Test
+    void testSaturationPeakExpiresFromWindow() {
+        Patient patient = new Patient(1);
+        long now = System.currentTimeMillis();
+        patient.addRecord(99.0, "Saturation", now - 700000);
+        patient.addRecord(95.0, "Saturation", now - 60000);
+        patient.addRecord(94.0, "Saturation", now);
+
+        alertGenerator.evaluateData(patient);
+
+        assertTrue(alertGenerator.getAlerts().isEmpty());
+    }
+
     @Test
     void testEvaluateDataWithDifferentPatients() {
         Patient mockPatient1 = mock(Patient.class);
@@ -165,8 +209,8 @@ class AlertGeneratorTest {
         List<PatientRecord> records2 = Collections.singletonList(
                 new PatientRecord(2, 125.0, "Diastolic", System.currentTimeMillis())
         );
-        when(mockPatient1.getRecords(anyLong(), anyLong())).thenReturn(records1);
-        when(mockPatient2.getRecords(anyLong(), anyLong())).thenReturn(records2);
+        when(mockPatient1.getRecordsSince(anyInt())).thenReturn(records1);
+        when(mockPatient2.getRecordsSince(anyInt())).thenReturn(records2);
 
         alertGenerator.evaluateData(mockPatient1);
         alertGenerator.evaluateData(mockPatient2);
@@ -183,7 +227,7 @@ class AlertGeneratorTest {
                 new PatientRecord(1, 85.0, "Systolic", System.currentTimeMillis()),
                 new PatientRecord(1, 89.0, "Saturation", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -200,7 +244,7 @@ class AlertGeneratorTest {
                 new PatientRecord(1, 122.0, "Systolic", System.currentTimeMillis() - 600000),
                 new PatientRecord(1, 135.0, "Systolic", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -215,7 +259,7 @@ class AlertGeneratorTest {
                 new PatientRecord(1, 127.0, "Systolic", System.currentTimeMillis() - 600000),
                 new PatientRecord(1, 113.0, "Systolic", System.currentTimeMillis())
         );
-        when(mockPatient.getRecords(anyLong(), anyLong())).thenReturn(records);
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
 
         alertGenerator.evaluateData(mockPatient);
 
@@ -223,7 +267,346 @@ class AlertGeneratorTest {
         assertEquals("Decreasing Blood Pressure Trend", alerts.get(0).getCondition());
     }
 
-}
+    @Test
+    void testRepeatedEvaluationOnlyEvaluatesNewRecords() {
+        Patient patient = new Patient(1);
+        long now = System.currentTimeMillis();
+        patient.addRecord(101.0, "HeartRate", now - 2000);
+
+        alertGenerator.evaluateData(patient);
+        alertGenerator.evaluateData(patient);
+        assertEquals(1, alertGenerator.getAlerts().size());
+
+        patient.addRecord(80.0, "HeartRate", now - 1000);
+        patient.addRecord(2.0, "ECG", now - 500);
+        alertGenerator.evaluateData(patient);
+
+        List<Alert> alerts = alertGenerator.getAlerts();
+        assertEquals(2, alerts.size());
+        assertEquals("Abnormal ECG", alerts.get(1).getCondition());
+    }
+
+    @Test
+    void testResetWatermarkEvaluatesHistoryAgain() {
+        Patient patient = new Patient(1);
+        patient.addRecord(101.0, "HeartRate", System.currentTimeMillis() - 1000);
+
+        alertGenerator.evaluateData(patient);
+        alertGenerator.resetWatermark(patient);
+        alertGenerator.evaluateData(patient);
+
+        assertEquals(2, alertGenerator.getAlerts().size());
+    }
+
+    @Test
+    void testRecordsAddedAfterEvaluationAreEvaluatedRegardlessOfTimestamp() {
+        Patient patient = new Patient(41);
+        long now = System.currentTimeMillis();
+        patient.addRecord(120.0, "Systolic", now);
+        alertGenerator.evaluateData(patient);
+        assertTrue(alertGenerator.getAlerts().isEmpty());
+
+        // A different signal in the same millisecond, and a reading that arrives late
+        patient.addRecord(85.0, "Saturation", now);
+        patient.addRecord(190.0, "Systolic", now - 60000);
+        alertGenerator.evaluateData(patient);
+
+        List<String> conditions = new ArrayList<>();
+        for (Alert alert : alertGenerator.getAlerts()) {
+            conditions.add(alert.getCondition());
+        }
+        assertTrue(conditions.contains(AlertConditions.LOW_BLOOD_SATURATION), conditions.toString());
+        assertTrue(conditions.contains(AlertConditions.CRITICAL_BLOOD_PRESSURE), conditions.toString());
+    }
+
+    @Test
+    void testBloodPressureTrendAcrossEvaluations() {
+        Patient patient = new Patient(1);
+        long now = System.currentTimeMillis();
+        patient.addRecord(110.0, "Systolic", now - 900000);
+        patient.addRecord(122.0, "Systolic", now - 600000);
+        alertGenerator.evaluateData(patient);
+        assertTrue(alertGenerator.getAlerts().isEmpty());
+
+        patient.addRecord(135.0, "Systolic", now - 300000);
+        alertGenerator.evaluateData(patient);
+
+        List<Alert> alerts = alertGenerator.getAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals("Increasing Blood Pressure Trend", alerts.get(0).getCondition());
+    }
+
+    @Test
+    void testBloodPressureTrendIgnoresReadingsOutsideWindow() {
+        Patient patient = new Patient(1);
+        long now = System.currentTimeMillis();
+        patient.addRecord(110.0, "Systolic", now - 1800000);
+        patient.addRecord(122.0, "Systolic", now - 1200000);
+        patient.addRecord(135.0, "Systolic", now - 300000);
+        patient.addRecord(136.0, "Systolic", now);
+
+        alertGenerator.evaluateData(patient);
+
+        // The first reading is older than 20 minutes by the time the third one arrives
+        assertTrue(alertGenerator.getAlerts().isEmpty());
+    }
+
+    @Test
+    void testRecordsOnlyReachStrategiesForTheirType() {
+        List<String> seenTypes = new ArrayList<>();
+        alertGenerator.addStrategy(new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+                seenTypes.add(record.getRecordType());
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("Temperature");
+            }
+        });
+        List<PatientRecord> records = Arrays.asList(
+                new PatientRecord(1, 37.0, "Temperature", System.currentTimeMillis()),
+                new PatientRecord(1, 101.0, "HeartRate", System.currentTimeMillis())
+        );
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
+
+        alertGenerator.evaluateData(mockPatient);
+
+        assertEquals(Collections.singletonList("Temperature"), seenTypes);
+        assertEquals(1, alertGenerator.getAlerts().size());
+    }
+
+    @Test
+    void testParallelEvaluationMatchesSerialOrder() {
+        List<Patient> patients = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int id = 1; id <= 200; id++) {
+            Patient patient = new Patient(id);
+            patient.addRecord(id % 2 == 0 ? 120.0 : 80.0, "HeartRate", now - 3000);
+            patient.addRecord(id % 3 == 0 ? 88.0 : 97.0, "Saturation", now - 2000);
+            patient.addRecord(id % 5 == 0 ? 2.0 : 0.5, "ECG", now - 1000);
+            patients.add(patient);
+        }
+        AlertGenerator serialGenerator = new AlertGenerator(mockDataStorage);
+        for (Patient patient : patients) {
+            serialGenerator.evaluateData(patient);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            alertGenerator.evaluateAll(patients, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Alert> serial = serialGenerator.getAlerts();
+        List<Alert> parallel = alertGenerator.getAlerts();
+        assertEquals(serial.size(), parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).getPatientId(), parallel.get(i).getPatientId());
+            assertEquals(serial.get(i).getCondition(), parallel.get(i).getCondition());
+        }
+    }
+
+    @Test
+    void testConcurrentEvaluationsOfOnePatientEvaluateEveryRecordOnce() throws InterruptedException {
+        AtomicInteger checks = new AtomicInteger();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        alertGenerator.addStrategy(new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                active.decrementAndGet();
+                checks.incrementAndGet();
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("Temperature");
+            }
+        });
+        Patient patient = new Patient(9);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            patient.addRecord(37.0, "Temperature", now + i);
+        }
+
+        Thread first = new Thread(() -> alertGenerator.evaluateData(patient));
+        Thread second = new Thread(() -> alertGenerator.evaluateData(patient));
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        assertEquals(5, checks.get());
+        assertEquals(1, maxActive.get());
+    }
+
+    @Test
+    void testRepeatedAlertsAreCollapsedWithinCooldown() {
+        long now = System.currentTimeMillis();
+        List<PatientRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(new PatientRecord(1, 2.0, "ECG", now - 100000 + i * 1000));
+        }
+        records.add(new PatientRecord(1, 2.0, "ECG", now - 10000));
+        when(mockPatient.getRecordsSince(anyInt())).thenReturn(records);
+        alertGenerator.setSuppressionWindow(60000);
+
+        alertGenerator.evaluateData(mockPatient);
+
+        assertEquals(2, alertGenerator.getAlerts().size(), "Repeats within the cooldown should be collapsed");
+        List<AlertInterface> summaries = alertGenerator.getAlertSummaries();
+        assertTrue(summaries.get(0) instanceof RepeatedAlertDecorator);
+        assertEquals(10, ((RepeatedAlertDecorator) summaries.get(0)).getRepeatCount());
+        assertEquals(now - 100000, summaries.get(0).getTimestamp());
+        assertTrue(summaries.get(1) instanceof Alert, "An alert after the cooldown starts a new episode");
+    }
+
+    @Test
+    void testBaselineAnomalyUsesEachPatientsOwnBaseline() {
+        alertGenerator.addStrategy(new BaselineAnomalyStrategy(Set.of("Saturation"), 0.1, 3.0, 30));
+        long now = System.currentTimeMillis();
+        Patient normal = new Patient(1);
+        Patient lowBaseline = new Patient(2);
+        for (int i = 0; i < 60; i++) {
+            normal.addRecord(97.0 + (i % 3) * 0.5, "Saturation", now - 100000 + i * 1000);
+            lowBaseline.addRecord(93.0 + (i % 3) * 0.5, "Saturation", now - 100000 + i * 1000);
+        }
+        normal.addRecord(93.0, "Saturation", now - 1000);
+        lowBaseline.addRecord(93.5, "Saturation", now - 1000);
+
+        alertGenerator.evaluateData(normal);
+        alertGenerator.evaluateData(lowBaseline);
+
+        List<Alert> alerts = new ArrayList<>(alertGenerator.getAlerts());
+        alerts.removeIf(alert -> !alert.getCondition().equals("Abnormal Saturation Deviation"));
+        assertEquals(1, alerts.size(), "93 is only abnormal for the patient with a baseline around 97");
+        assertEquals("1", alerts.get(0).getPatientId());
+    }
+
+    @Test
+    void testBaselineAnomalyRejectsInvalidSettings() {
+        Set<String> types = Set.of("Saturation");
+        assertThrows(IllegalArgumentException.class, () -> new BaselineAnomalyStrategy(types, 0.1, 0.0, 30));
+        assertThrows(IllegalArgumentException.class, () -> new BaselineAnomalyStrategy(types, 0.1, Double.NaN, 30));
+        assertThrows(IllegalArgumentException.class, () -> new BaselineAnomalyStrategy(types, 0.1, 3.0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new BaselineAnomalyStrategy(types, 0.1, 3.0, 30, 0));
+    }
+
+    @Test
+    void testBaselineAnomalyDropsIdlePatients() {
+        BaselineAnomalyStrategy strategy = new BaselineAnomalyStrategy(Set.of("Saturation"), 0.1, 3.0, 30, 60000);
+        List<Alert> alerts = new ArrayList<>();
+        long start = 1700000000000L;
+        strategy.checkAlert(new Patient(1), new PatientRecord(1, 97.0, "Saturation", start), alerts);
+        strategy.checkAlert(new Patient(2), new PatientRecord(2, 97.0, "Saturation", start + 30000), alerts);
+        assertEquals(2, strategy.getPatientCount());
+
+        strategy.checkAlert(new Patient(2), new PatientRecord(2, 97.0, "Saturation", start + 90000), alerts);
+
+        assertEquals(1, strategy.getPatientCount(), "Patient 1 sent nothing for longer than the idle period");
+    }
+
+    @Test
+    void testFutureDatedReadingDoesNotEvictOtherPatients() {
+        BaselineAnomalyStrategy strategy = new BaselineAnomalyStrategy(Set.of("Saturation"), 0.1, 3.0, 30, 60000);
+        List<Alert> alerts = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        strategy.checkAlert(new Patient(1), new PatientRecord(1, 97.0, "Saturation", now - 1000), alerts);
+        strategy.checkAlert(new Patient(2), new PatientRecord(2, 97.0, "Saturation", now + 86400000), alerts);
+        strategy.checkAlert(new Patient(3), new PatientRecord(3, 97.0, "Saturation", now), alerts);
+
+        assertEquals(3, strategy.getPatientCount(), "A reading dated a day ahead should not make everyone idle");
+    }
+
+    @Test
+    void testSlopeTrendFollowsRegressionOverWindow() {
+        // Alert when heart rate rises by more than 2 beats per minute over a 10 minute window
+        alertGenerator.addStrategy(new SlopeTrendStrategy(Set.of("HeartRate"), 600000, 5, 2.0, Double.POSITIVE_INFINITY));
+        long now = System.currentTimeMillis();
+        Patient noisyFlat = new Patient(1);
+        Patient rising = new Patient(2);
+        for (int i = 0; i < 10; i++) {
+            long timestamp = now - 1200000 + i * 60000L;
+            noisyFlat.addRecord(i % 2 == 0 ? 60.0 : 75.0, "HeartRate", timestamp);
+            rising.addRecord(60.0 + 3.0 * i + (i % 2 == 0 ? 1.0 : -1.0), "HeartRate", timestamp);
+        }
+
+        alertGenerator.evaluateData(noisyFlat);
+        alertGenerator.evaluateData(rising);
 
+        List<Alert> alerts = alertGenerator.getAlerts();
+        assertFalse(alerts.isEmpty());
+        for (Alert alert : alerts) {
+            assertEquals("2", alert.getPatientId(), "Alternating readings have no trend");
+            assertEquals("Rising HeartRate Trend", alert.getCondition());
+        }
+        assertEquals(6, alerts.size(), "The slope is only trusted from the fifth reading on");
+    }
 
+    @Test
+    void testSlopeTrendDropsPatientsOutsideWindow() {
+        SlopeTrendStrategy strategy = new SlopeTrendStrategy(Set.of("HeartRate"), 600000, 5, 2.0, 2.0);
+        List<Alert> alerts = new ArrayList<>();
+        long start = 1700000000000L;
+        strategy.checkAlert(new Patient(1), new PatientRecord(1, 70.0, "HeartRate", start), alerts);
+        strategy.checkAlert(new Patient(2), new PatientRecord(2, 70.0, "HeartRate", start + 300000), alerts);
+        assertEquals(2, strategy.getPatientCount());
+
+        strategy.checkAlert(new Patient(2), new PatientRecord(2, 70.0, "HeartRate", start + 900000), alerts);
+
+        assertEquals(1, strategy.getPatientCount(), "All readings of patient 1 left the window");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlopeTrendStrategy(Set.of("HeartRate"), 600000, 5, -1.0, 2.0));
+    }
 
+    @Test
+    void testSlopeTrendIgnoresLateReadings() {
+        SlopeTrendStrategy strategy = new SlopeTrendStrategy(Set.of("HeartRate"), 600000, 5, 2.0, 2.0);
+        List<Alert> alerts = new ArrayList<>();
+        long start = 1700000000000L;
+        Patient patient = new Patient(1);
+        for (int i = 0; i < 5; i++) {
+            strategy.checkAlert(patient, new PatientRecord(1, 70.0, "HeartRate", start + i * 60000L), alerts);
+        }
+
+        strategy.checkAlert(patient, new PatientRecord(1, 200.0, "HeartRate", start + 30000), alerts);
+        strategy.checkAlert(patient, new PatientRecord(1, 70.0, "HeartRate", start + 300000), alerts);
+
+        assertTrue(alerts.isEmpty(), "A reading older than the window's newest should not count as its latest");
+    }
+
+    @Test
+    void testStrategyStatsCountInvocationsAndAlerts() throws Exception {
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(1);
+        for (int i = 0; i < 1000; i++) {
+            patient.addRecord(i % 10 == 0 ? 120.0 : 80.0, "HeartRate", now - 100000 + i);
+        }
+        alertGenerator.registerStrategyStats("stats-test");
+        try {
+            alertGenerator.evaluateData(patient);
+
+            StrategyStats heartRate = alertGenerator.getStrategyStats().get(2);
+            assertEquals("HeartRateStrategy", heartRate.getStrategyName());
+            assertEquals(1000, heartRate.getInvocationCount());
+            assertEquals(100, heartRate.getAlertCount());
+            assertEquals(0, alertGenerator.getStrategyStats().get(5).getInvocationCount(),
+                    "ECG strategy should not see heart rate records");
+            assertTrue(alertGenerator.dumpStrategyStats().startsWith("HeartRateStrategy"));
+
+            ObjectName name = new ObjectName("com.alerts:type=StrategyStats,generator=\"stats-test\",name=\"HeartRateStrategy\"");
+            assertEquals(1000L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "InvocationCount"));
+        } finally {
+            alertGenerator.unregisterStrategyStats();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertDispatcher;
+import com.alerts.AlertLog;
+import com.alerts.AlertStore;
+import com.alerts.Decorator.AlertInterface;
+import com.alerts.Decorator.RepeatedAlertDecorator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testQueryByPatientAndTimeAfterReopening() throws Exception {
+        try (AlertLog log = new AlertLog(directory)) {
+            log.append(new Alert(12, "High Heart Rate", 1000, "High"));
+            log.append(new Alert(7, "Abnormal ECG", 2000, "Low"));
+            log.append(new Alert(12, "Critical Blood Pressure", 3000, "High"));
+        }
+
+        try (AlertLog log = new AlertLog(directory)) {
+            List<AlertInterface> alerts = log.query(12, 0, 2500);
+            assertEquals(1, alerts.size());
+            assertEquals("High Heart Rate", alerts.get(0).getCondition());
+            assertEquals(3, log.query(null, 0, Long.MAX_VALUE).size());
+        }
+    }
+
+    @Test
+    void testDispatchedAlertsAreFlushedWithoutCallingFlush() throws Exception {
+        Path logFile = directory.resolve(AlertLog.LOG_FILE);
+        AlertDispatcher dispatcher = new AlertDispatcher(16);
+        try (AlertLog log = new AlertLog(directory)) {
+            long emptySize = Files.size(logFile);
+            dispatcher.addSink(log);
+            dispatcher.start();
+            dispatcher.dispatch(new Alert(8, "High Heart Rate", 1000, "High"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.size(logFile) == emptySize && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(Files.size(logFile) > emptySize, "The alert should be flushed once the lane is empty");
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void testLoadRecentOnlyLoadsAlertsAfterStartTime() throws Exception {
+        AlertStore store = new AlertStore(10);
+        try (AlertLog log = new AlertLog(directory)) {
+            log.append(new Alert(1, "High Heart Rate", 1000, "High"));
+            log.append(new Alert(1, "High Heart Rate", 5000, "High"));
+            log.append(new Alert(2, "Low Saturation", 6000, "High"));
+
+            assertEquals(2, log.loadRecent(store, 5000));
+        }
+        assertEquals(2, store.size());
+        assertEquals(5000, store.getAll().get(0).getTimestamp());
+    }
+
+    @Test
+    void testCompactionDropsOldAlertsAndMergesRepeats() throws Exception {
+        try (AlertLog log = new AlertLog(directory)) {
+            log.append(new Alert(1, "Low Saturation", 100, "High"));
+            log.append(new Alert(1, "High Heart Rate", 1000, "High"));
+            log.append(new Alert(1, "High Heart Rate", 1500, "High"));
+            log.append(new Alert(1, "High Heart Rate", 2000, "High"));
+            log.append(new Alert(1, "High Heart Rate", 9000, "High"));
+            log.flush();
+            long sizeBefore = Files.size(directory.resolve(AlertLog.LOG_FILE));
+
+            log.compact(500, 1000);
+            log.append(new Alert(2, "Abnormal ECG", 9500, "Low"));
+
+            List<AlertInterface> alerts = log.query(null, 0, Long.MAX_VALUE);
+            assertEquals(3, alerts.size());
+            assertTrue(alerts.get(0) instanceof RepeatedAlertDecorator);
+            assertEquals(1000, alerts.get(0).getTimestamp());
+            assertEquals(3, ((RepeatedAlertDecorator) alerts.get(0)).getRepeatCount());
+            assertEquals(9000, alerts.get(1).getTimestamp());
+            assertEquals("Abnormal ECG", alerts.get(2).getCondition());
+            assertTrue(Files.size(directory.resolve(AlertLog.LOG_FILE)) < sizeBefore);
+        }
+    }
+
+    @Test
+    void testMergedRepeatsSurviveSecondCompaction() throws Exception {
+        try (AlertLog log = new AlertLog(directory)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(new Alert(4, "High Heart Rate", 1000 + i * 500, "High"));
+            }
+            log.compact(0, 1000);
+            assertEquals(1, log.query(4, 0, Long.MAX_VALUE).size());
+
+            // The merged record starts at 1000, but its newest repeat at 5500 is inside the retention period
+            log.compact(3000, 1000);
+            log.append(new Alert(4, "High Heart Rate", 6000, "High"));
+            log.compact(0, 1000);
+
+            List<AlertInterface> alerts = log.query(4, 0, Long.MAX_VALUE);
+            assertEquals(1, alerts.size());
+            assertEquals(11, ((RepeatedAlertDecorator) alerts.get(0)).getRepeatCount());
+        }
+    }
+
+    @Test
+    void testRecoversFromTornLogTailWithIntactIndex() throws Exception {
+        try (AlertLog log = new AlertLog(directory)) {
+            log.append(new Alert(5, "High Heart Rate", 1000, "High"));
+            log.append(new Alert(5, "High Heart Rate", 2000, "High"));
+        }
+        Path logFile = directory.resolve(AlertLog.LOG_FILE);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile) - 3);
+        }
+
+        try (AlertLog log = new AlertLog(directory)) {
+            assertEquals(1, log.query(5, 0, Long.MAX_VALUE).size());
+            log.append(new Alert(5, "Low Saturation", 3000, "High"));
+            List<AlertInterface> alerts = log.query(5, 0, Long.MAX_VALUE);
+            assertEquals(2, alerts.size());
+            assertEquals("Low Saturation", alerts.get(1).getCondition());
+        }
+    }
+
+    @Test
+    void testRecoversFromTruncatedLogAndMissingIndex() throws Exception {
+        try (AlertLog log = new AlertLog(directory)) {
+            log.append(new Alert(3, "High Heart Rate", 1000, "High"));
+            log.append(new Alert(3, "High Heart Rate", 2000, "High"));
+        }
+        Path logFile = directory.resolve(AlertLog.LOG_FILE);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile) - 3);
+        }
+        Files.delete(directory.resolve(AlertLog.INDEX_FILE));
+
+        try (AlertLog log = new AlertLog(directory)) {
+            assertEquals(1, log.query(3, 0, Long.MAX_VALUE).size());
+            log.append(new Alert(3, "Low Saturation", 3000, "High"));
+            List<AlertInterface> alerts = log.query(3, 0, Long.MAX_VALUE);
+            assertEquals(2, alerts.size());
+            assertEquals("Low Saturation", alerts.get(1).getCondition());
+        }
+    }
+}
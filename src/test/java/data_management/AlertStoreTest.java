@@ -0,0 +1,73 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertStoreTest {
+    private AlertStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AlertStore(4);
+    }
+
+    @Test
+    void testQueryFiltersByPatientPriorityAndTime() {
+        store.add(new Alert(12, "High Heart Rate", 1000, "High"));
+        store.add(new Alert(12, "Abnormal ECG", 2000, "Low"));
+        store.add(new Alert(7, "High Heart Rate", 3000, "High"));
+        store.add(new Alert(12, "Critical Blood Pressure", 4000, "High"));
+
+        List<Alert> result = store.query(12, null, "High", 1500, Long.MAX_VALUE);
+        assertEquals(1, result.size());
+        assertEquals("Critical Blood Pressure", result.get(0).getCondition());
+
+        assertEquals(2, store.query(null, "High Heart Rate", null, 0, 5000).size());
+        assertTrue(store.query(99, null, null, 0, 5000).isEmpty());
+    }
+
+    @Test
+    void testQueryReturnsAlertsInTimestampOrder() {
+        store.add(new Alert(1, "Abnormal ECG", 3000, "High"));
+        store.add(new Alert(1, "Abnormal ECG", 1000, "High"));
+        store.add(new Alert(1, "Abnormal ECG", 2000, "High"));
+
+        List<Alert> result = store.query(1, null, null, 0, 5000);
+        assertEquals(1000, result.get(0).getTimestamp());
+        assertEquals(2000, result.get(1).getTimestamp());
+        assertEquals(3000, result.get(2).getTimestamp());
+    }
+
+    @Test
+    void testOldestAlertIsEvictedWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            assertNull(store.add(new Alert(i, "Abnormal ECG", i * 1000L, "High")));
+        }
+
+        Alert evicted = store.add(new Alert(4, "Abnormal ECG", 4000, "High"));
+
+        assertEquals("0", evicted.getPatientId());
+        assertEquals(4, store.size());
+        assertTrue(store.query(0, null, null, 0, 5000).isEmpty(), "Evicted alerts should leave the indexes");
+        assertEquals("1", store.getAll().get(0).getPatientId());
+    }
+
+    @Test
+    void testSubscribersReceiveNewAlerts() {
+        List<Alert> received = new ArrayList<>();
+        store.subscribe(received::add);
+        Alert alert = new Alert(1, "Low Blood Oxygen Saturation", 1000, "High");
+
+        store.add(alert);
+
+        assertEquals(1, received.size());
+        assertSame(alert, received.get(0));
+    }
+}
@@ -0,0 +1,56 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertSweeper;
+import com.data_management.DataStorage;
+import com.data_management.DirtyPatientSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertSweeperTest {
+
+    @Test
+    void testDirtySetContainsOnlyWrittenPatients() {
+        DataStorage dataStorage = new DataStorage();
+        for (int id = 1; id <= 100; id++) {
+            dataStorage.addPatientData(id, 70.0, "HeartRate", 1000);
+        }
+        DirtyPatientSet dirtyPatients = dataStorage.trackDirtyPatients();
+
+        dataStorage.addPatientData(7, 72.0, "HeartRate", 2000);
+        dataStorage.addPatientData(42, 72.0, "HeartRate", 2000);
+        dataStorage.addPatientData(7, 73.0, "HeartRate", 3000);
+
+        List<Integer> drained = dirtyPatients.drain();
+        assertEquals(2, drained.size());
+        assertTrue(drained.contains(7) && drained.contains(42));
+        assertTrue(dirtyPatients.drain().isEmpty(), "Draining should clear the set");
+    }
+
+    @Test
+    void testSweepEvaluatesOnlyPatientsWithNewRecords() {
+        DataStorage dataStorage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(dataStorage);
+        AlertSweeper sweeper = new AlertSweeper(alertGenerator, dataStorage, 1, TimeUnit.HOURS);
+        sweeper.start();
+        try {
+            long now = System.currentTimeMillis();
+            dataStorage.addPatientData(1, 120.0, "HeartRate", now - 2000);
+            dataStorage.addPatientData(2, 80.0, "HeartRate", now - 2000);
+
+            assertEquals(2, sweeper.sweep());
+            assertEquals(1, alertGenerator.getAlerts().size());
+            assertEquals(0, sweeper.sweep(), "Nothing was written since the previous sweep");
+
+            dataStorage.addPatientData(2, 130.0, "HeartRate", now - 1000);
+            assertEquals(1, sweeper.sweep());
+            assertEquals(2, alertGenerator.getAlerts().size());
+        } finally {
+            sweeper.stop();
+        }
+    }
+}
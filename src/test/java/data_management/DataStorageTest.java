@@ -191,4 +191,48 @@ class DataStorageTest {
         List<PatientRecord> records = dataStorage.getRecords(22, Long.MIN_VALUE, Long.MAX_VALUE);
         assertEquals(2, records.size());
     }
+
+    @Test
+    void shouldRankPatientsByLatestValueOfSignal() {
+        dataStorage.trackLeaderboard("Saturation");
+        dataStorage.addPatientData(1, 97.0, "Saturation", 1000L);
+        dataStorage.addPatientData(2, 91.0, "Saturation", 1000L);
+        dataStorage.addPatientData(3, 94.0, "Saturation", 1000L);
+        dataStorage.addPatientData(2, 98.0, "Saturation", 2000L);
+        // A late record does not replace the newer value of patient 3
+        dataStorage.addPatientData(3, 80.0, "Saturation", 500L);
+        dataStorage.addPatientRecords(List.of(new PatientRecord(4, 93.0, "Saturation", 1500L)));
+
+        List<PatientRecord> lowest = dataStorage.getBottomPatients("Saturation", 2);
+        assertEquals(2, lowest.size());
+        assertEquals(4, lowest.get(0).getPatientId());
+        assertEquals(3, lowest.get(1).getPatientId());
+        assertEquals(94.0, lowest.get(1).getMeasurementValue());
+
+        List<PatientRecord> highest = dataStorage.getTopPatients("Saturation", 10);
+        assertEquals(4, highest.size());
+        assertEquals(2, highest.get(0).getPatientId());
+        assertTrue(dataStorage.getTopPatients("Systolic", 5).isEmpty());
+
+        dataStorage.clear();
+        assertTrue(dataStorage.getBottomPatients("Saturation", 2).isEmpty());
+        dataStorage.addPatientData(5, 90.0, "Saturation", 3000L);
+        assertEquals(1, dataStorage.getBottomPatients("Saturation", 2).size(), "Tracking survives clearing the storage");
+    }
+
+    @Test
+    void shouldOnlyRankTrackedSignals() {
+        dataStorage.addPatientData(1, 0.4, "ECG", 1000L);
+        dataStorage.addPatientData(1, 130.0, "Systolic", 1000L);
+        dataStorage.addPatientData(2, 110.0, "Systolic", 1000L);
+        assertTrue(dataStorage.getTopPatients("Systolic", 5).isEmpty());
+
+        dataStorage.trackLeaderboard("Systolic");
+        dataStorage.addPatientData(2, 140.0, "Systolic", 2000L);
+
+        List<PatientRecord> highest = dataStorage.getTopPatients("Systolic", 5);
+        assertEquals(2, highest.size(), "Records stored before tracking started are ranked too");
+        assertEquals(2, highest.get(0).getPatientId());
+        assertTrue(dataStorage.getTopPatients("ECG", 5).isEmpty());
+    }
 }
@@ -0,0 +1,118 @@
+package data_management;
+
+import com.data_management.DataStorage;
+import com.data_management.EcgProcessor;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcgProcessorTest {
+    private static final double SAMPLE_RATE = 250.0;
+    private static final long START = 1700000000000L;
+
+    @Test
+    void testHeartRateIsDerivedFromSyntheticEcg() {
+        DataStorage dataStorage = new DataStorage();
+        EcgProcessor processor = new EcgProcessor(dataStorage, SAMPLE_RATE);
+        processor.start();
+
+        feedEcg(dataStorage, 1, 75, 20);
+
+        List<PatientRecord> heartRates = recordsOfType(dataStorage, 1, EcgProcessor.HEART_RATE);
+        List<PatientRecord> rrIntervals = recordsOfType(dataStorage, 1, EcgProcessor.RR_INTERVAL);
+        // About 22 beats follow the 2 s learning period; allow for the first beats being missed
+        assertTrue(heartRates.size() >= 18 && heartRates.size() <= 23, "Detected " + heartRates.size() + " beats");
+        assertEquals(heartRates.size(), rrIntervals.size());
+        for (int i = 0; i < heartRates.size(); i++) {
+            assertEquals(75.0, heartRates.get(i).getMeasurementValue(), 3.0);
+            assertEquals(800.0, rrIntervals.get(i).getMeasurementValue(), 30.0);
+        }
+    }
+
+    @Test
+    void testPatientsAreDetectedIndependently() {
+        DataStorage dataStorage = new DataStorage();
+        EcgProcessor processor = new EcgProcessor(dataStorage, SAMPLE_RATE);
+        processor.start();
+
+        feedEcg(dataStorage, 2, 60, 15);
+        feedEcg(dataStorage, 3, 120, 15);
+
+        List<PatientRecord> slow = recordsOfType(dataStorage, 2, EcgProcessor.HEART_RATE);
+        List<PatientRecord> fast = recordsOfType(dataStorage, 3, EcgProcessor.HEART_RATE);
+        assertFalse(slow.isEmpty());
+        assertFalse(fast.isEmpty());
+        assertEquals(60.0, slow.get(slow.size() - 1).getMeasurementValue(), 3.0);
+        assertEquals(120.0, fast.get(fast.size() - 1).getMeasurementValue(), 5.0);
+    }
+
+    @Test
+    void testSingleThreadKeepsUpWithManyPatients() {
+        int patients = 200;
+        int seconds = 10;
+        double[][] ecg = new double[patients][];
+        for (int patient = 0; patient < patients; patient++) {
+            ecg[patient] = syntheticEcg(patient, 60 + patient % 60, seconds);
+        }
+        EcgProcessor processor = new EcgProcessor(new DataStorage(), SAMPLE_RATE);
+        // Warms up the JIT on a separate set of patients
+        for (int i = 0; i < ecg[0].length; i++) {
+            processor.process(-1, ecg[0][i], START + sampleTime(i));
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < ecg[0].length; i++) {
+            long timestamp = START + sampleTime(i);
+            for (int patient = 0; patient < patients; patient++) {
+                processor.process(patient, ecg[patient][i], timestamp);
+            }
+        }
+        long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+
+        // 200 patients at 250 Hz for 10 s; requiring a tenth of real time leaves a wide margin for slow machines
+        assertTrue(elapsedMs < seconds * 1000 / 10,
+                "Processing " + seconds + " s of ECG for " + patients + " patients took " + elapsedMs + " ms");
+    }
+
+    /**
+     * Feeds a synthetic ECG into the storage.
+     */
+    private static void feedEcg(DataStorage dataStorage, int patientId, double bpm, int seconds) {
+        double[] samples = syntheticEcg(patientId, bpm, seconds);
+        for (int i = 0; i < samples.length; i++) {
+            dataStorage.addPatientData(patientId, samples[i], EcgProcessor.ECG, START + sampleTime(i));
+        }
+    }
+
+    /**
+     * Returns a synthetic ECG: narrow QRS spikes at the given rate on top of baseline wander and noise.
+     */
+    private static double[] syntheticEcg(int patientId, double bpm, int seconds) {
+        Random random = new Random(patientId);
+        double beatPeriod = 60.0 / bpm;
+        double[] samples = new double[(int) (seconds * SAMPLE_RATE)];
+        for (int i = 0; i < samples.length; i++) {
+            double t = i / SAMPLE_RATE;
+            double sinceBeat = (t % beatPeriod) - beatPeriod / 2;
+            double qrs = Math.exp(-sinceBeat * sinceBeat / (2 * 0.01 * 0.01));
+            double tWave = 0.2 * Math.exp(-Math.pow(sinceBeat - 0.25, 2) / (2 * 0.04 * 0.04));
+            double wander = 0.1 * Math.sin(2 * Math.PI * 0.3 * t);
+            samples[i] = qrs + tWave + wander + 0.02 * random.nextGaussian();
+        }
+        return samples;
+    }
+
+    private static long sampleTime(int sample) {
+        return Math.round(sample * 1000 / SAMPLE_RATE);
+    }
+
+    private static List<PatientRecord> recordsOfType(DataStorage dataStorage, int patientId, String type) {
+        List<PatientRecord> records = dataStorage.getRecords(patientId, 0, Long.MAX_VALUE);
+        records.removeIf(record -> !type.equals(record.getRecordType()));
+        return records;
+    }
+}
@@ -0,0 +1,70 @@
+package data_management;
+
+import com.data_management.IngestMetrics;
+import com.data_management.LatencyHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        IngestMetrics.setEnabled(false);
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        assertEquals(1000, histogram.getMax());
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125, "p50 was " + p50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99 was " + p99);
+    }
+
+    @Test
+    void testNegativeLatencyIsRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testDisabledMetricsRecordNothing() {
+        IngestMetrics metrics = IngestMetrics.forReader("disabled-test");
+        metrics.recordSample(System.currentTimeMillis());
+        metrics.recordParseError();
+
+        assertEquals(0, metrics.getSampleCount());
+        assertEquals(0, metrics.getParseErrorCount());
+    }
+
+    @Test
+    void testEnabledMetricsAreRecordedAndExposedViaJmx() throws Exception {
+        IngestMetrics.setEnabled(true);
+        IngestMetrics metrics = IngestMetrics.forReader("enabled-test");
+        metrics.reset();
+
+        metrics.recordSample(System.currentTimeMillis() - 20);
+        metrics.recordParseError();
+
+        assertEquals(1, metrics.getSampleCount());
+        assertEquals(1, metrics.getParseErrorCount());
+        assertTrue(metrics.getLatencyMaxMillis() >= 20);
+
+        ObjectName name = new ObjectName("com.data_management:type=IngestMetrics,name=" + ObjectName.quote("enabled-test"));
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SampleCount"));
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,11 +31,17 @@ public class IntegrationTest {
         // Start the mock WebSocket server
         mockServer = new MockWebSocketServer(new InetSocketAddress("localhost", 8887));
         mockServer.start();
+        mockServer.awaitStart(5, TimeUnit.SECONDS);
 
         // Initialize DataStorage and WebSocketClientCode
         dataStorage = new DataStorage();
         client = new WebSocketClientCode(new URI("ws://localhost:8887"), dataStorage);
         client.connectBlocking();
+        // The server registers the connection asynchronously; broadcasts before that are lost
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mockServer.getConnections().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
     }
 
     @AfterAll
@@ -64,6 +71,18 @@ public class IntegrationTest {
         assertEquals("BloodPressure", records2.get(0).getRecordType());
     }
 
+    @Test
+    void testBatchedFrame() throws InterruptedException {
+        // Several records coalesced into one frame
+        mockServer.broadcast("6,0.5,ECG,1700000000010\n6,0.6,ECG,1700000000011\n6,0.7,ECG,1700000000012");
+
+        Thread.sleep(1000);
+
+        List<PatientRecord> records = dataStorage.getRecords(6, 0, Long.MAX_VALUE);
+        assertEquals(3, records.size());
+        assertEquals(0.7, records.get(2).getMeasurementValue());
+    }
+
     @Test
     void testAlertGeneration() throws InterruptedException {
         // Initialize the AlertGenerator
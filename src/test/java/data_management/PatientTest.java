@@ -54,4 +54,25 @@ class PatientTest {
         assertEquals(1, records.size(), "Should return one record at the end boundary");
         assertEquals(120.0, records.get(0).getMeasurementValue(), "Record should have a measurement value of 120.0");
     }
+
+    @Test
+    void testRetrieveRecordsAddedOutOfOrder() {
+        long now = System.currentTimeMillis();
+        patient.addRecord(100.0, "HeartRate", now + 2000);
+        patient.addRecord(110.0, "HeartRate", now);
+        patient.addRecord(120.0, "HeartRate", now + 1000);
+
+        List<PatientRecord> records = patient.getRecords(now, now + 1000);
+        assertEquals(2, records.size(), "Out-of-order records should still be filtered by time");
+        assertEquals(now + 2000, patient.getLastTimestamp());
+    }
+
+    @Test
+    void testAddRecordReturnsItsPositionInArrivalOrder() {
+        long now = System.currentTimeMillis();
+        assertEquals(0, patient.addRecord(new PatientRecord(1, 100.0, "HeartRate", now)));
+        // A late record still gets the next position, so readers counting records see it
+        assertEquals(1, patient.addRecord(new PatientRecord(1, 90.0, "HeartRate", now - 1000)));
+        assertEquals(2, patient.getRecordCount());
+    }
 }
@@ -0,0 +1,121 @@
+package data_management;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertSubscriber;
+import com.data_management.DataStorage;
+import com.data_management.DataStorageProcessor;
+import com.data_management.FileDataReader;
+import com.data_management.MockWebSocketServer;
+import com.data_management.PatientRecord;
+import com.data_management.RecordPublisher;
+import com.data_management.WebSocketClientCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordPublisherTest {
+
+    @Test
+    void testFileRecordsFlowIntoStorageAndAlerts() throws Exception {
+        String data = "1,80.0,HeartRate,1700000000000\n"
+                + "1,120.0,HeartRate,1700000000001\n"
+                + "2,95.0,Saturation,1700000000002\n"
+                + "2,89.0,Saturation,1700000000003\n"
+                + "3,0.5,ECG,1700000000004\n";
+        DataStorage dataStorage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(dataStorage);
+
+        RecordPublisher publisher = new RecordPublisher(2);
+        DataStorageProcessor storageProcessor = new DataStorageProcessor(dataStorage);
+        AlertSubscriber alertSubscriber = new AlertSubscriber(alertGenerator, dataStorage);
+        publisher.subscribe(storageProcessor);
+        storageProcessor.subscribe(alertSubscriber);
+
+        new FileDataReader(new BufferedReader(new StringReader(data))).readData(publisher);
+        alertSubscriber.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(5, dataStorage.getPatientDataCount());
+        assertEquals(3, alertGenerator.getAlerts().size()); // high heart rate, low saturation, rapid drop
+    }
+
+    @Test
+    void testWebSocketRecordsFlowIntoStorage() throws Exception {
+        MockWebSocketServer server = new MockWebSocketServer(new InetSocketAddress("localhost", 8895));
+        server.start();
+        assertTrue(server.awaitStart(5, TimeUnit.SECONDS));
+
+        DataStorage dataStorage = new DataStorage();
+        RecordPublisher publisher = new RecordPublisher(100);
+        publisher.subscribe(new DataStorageProcessor(dataStorage));
+        WebSocketClientCode client = new WebSocketClientCode(new URI("ws://localhost:8895"), dataStorage, publisher);
+        try {
+            assertTrue(client.connectBlocking());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getConnections().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // Every frame is published as one batch, so records do not wait for a full batch
+            server.broadcast("1,98.0,Saturation,1700000000000\n1,72.0,HeartRate,1700000000001");
+            server.broadcast("2,120.0,Systolic,1700000000002");
+            deadline = System.currentTimeMillis() + 5000;
+            while (dataStorage.getPatientDataCount() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(3, dataStorage.getPatientDataCount());
+        } finally {
+            client.close();
+            server.stop();
+        }
+        assertTrue(publisher.isClosed());
+    }
+
+    @Test
+    void testSlowSubscriberThrottlesPublisher() throws Exception {
+        // One batch of buffer space: the publisher has to wait for the subscriber
+        RecordPublisher publisher = new RecordPublisher(Runnable::run, 1, 1);
+        List<List<PatientRecord>> received = new CopyOnWriteArrayList<>();
+        CountDownLatch subscribed = new CountDownLatch(1);
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        publisher.subscribe(new Flow.Subscriber<List<PatientRecord>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                subscribed.countDown();
+            }
+
+            @Override
+            public void onNext(List<PatientRecord> batch) {
+                received.add(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        subscribed.await();
+
+        publisher.emit(new PatientRecord(1, 1.0, "ECG", 1L));
+        assertEquals(1, publisher.estimateMaximumLag());
+        assertTrue(received.isEmpty(), "Nothing should be delivered without demand");
+
+        subscription[0].request(1);
+        assertEquals(1, received.size());
+        assertEquals(0, publisher.estimateMaximumLag());
+        publisher.close();
+    }
+}
@@ -0,0 +1,338 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.Rules.RuleEngine;
+import com.alerts.Rules.RuleLoader;
+import com.alerts.Strategy.AlertStrategy;
+import com.alerts.Strategy.BloodPressureTrendStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleEngineTest {
+
+    @Test
+    void testExampleRulesMatchBuiltInAlerts() throws Exception {
+        Path example = Paths.get(getClass().getClassLoader().getResource("alert-rules.properties").toURI());
+        List<AlertStrategy> rules = RuleLoader.load(example);
+        assertEquals(10, rules.size());
+
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        generator.setStrategies(rules);
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(3);
+        patient.addRecord(2.0, "ECG", now - 5000);
+        patient.addRecord(101.0, "HeartRate", now - 4000);
+        patient.addRecord(97.0, "Saturation", now - 3000);
+        patient.addRecord(91.0, "Saturation", now - 2000);
+        generator.evaluateData(patient);
+
+        List<Alert> alerts = generator.getAlerts();
+        assertEquals(4, alerts.size());
+        assertEquals("Abnormal ECG", alerts.get(0).getCondition());
+        assertEquals("High Heart Rate", alerts.get(1).getCondition());
+        assertEquals("Low Blood Saturation", alerts.get(2).getCondition());
+        assertEquals("Rapid Blood Saturation Drop", alerts.get(3).getCondition());
+
+        // The trend rules pick the same readings as the built-in strategy
+        AlertGenerator ruleGenerator = new AlertGenerator(new DataStorage());
+        ruleGenerator.setStrategies(rules);
+        AlertGenerator builtInGenerator = new AlertGenerator(new DataStorage());
+        builtInGenerator.setStrategies(List.of(new BloodPressureTrendStrategy()));
+        Patient trending = new Patient(4);
+        trending.addRecord(100.0, "Systolic", now);
+        trending.addRecord(115.0, "Systolic", now + 1000);
+        trending.addRecord(130.0, "Systolic", now + 2000);
+        trending.addRecord(140.0, "Systolic", now + 3000);
+        trending.addRecord(110.0, "Diastolic", now + 4000);
+        trending.addRecord(95.0, "Diastolic", now + 5000);
+        trending.addRecord(80.0, "Diastolic", now + 6000);
+        trending.addRecord(75.0, "Diastolic", now + 7000);
+        trending.addRecord(70.0, "Diastolic", now + 1300000);
+        ruleGenerator.evaluateData(trending);
+        builtInGenerator.evaluateData(trending);
+
+        List<Alert> ruleAlerts = ruleGenerator.getAlerts();
+        List<Alert> builtInAlerts = builtInGenerator.getAlerts();
+        assertEquals(4, builtInAlerts.size(), "Two alerts per pressure type, none once the window has moved on");
+        assertEquals(builtInAlerts.size(), ruleAlerts.size());
+        for (int i = 0; i < builtInAlerts.size(); i++) {
+            assertEquals(builtInAlerts.get(i).getCondition(), ruleAlerts.get(i).getCondition());
+            assertEquals(builtInAlerts.get(i).getTimestamp(), ruleAlerts.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void testTrendRuleNeedsEveryStepInOneDirection() throws Exception {
+        Properties properties = new Properties();
+        properties.load(new StringReader(String.join("\n",
+                "rules=rise",
+                "rule.rise.type=trend",
+                "rule.rise.signal=Systolic",
+                "rule.rise.condition=Rising",
+                "rule.rise.direction=increasing",
+                "rule.rise.readings=3",
+                "rule.rise.step=10",
+                "rule.rise.window=60000")));
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        generator.setStrategies(RuleLoader.compile(properties));
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(5);
+        patient.addRecord(100.0, "Systolic", now - 150000);
+        patient.addRecord(115.0, "Systolic", now - 140000);
+        patient.addRecord(120.0, "Systolic", now - 130000);
+        // 100, 115 and 120 have left the window by the next reading
+        patient.addRecord(125.0, "Systolic", now - 50000);
+        patient.addRecord(140.0, "Systolic", now - 40000);
+        patient.addRecord(155.0, "Systolic", now - 30000);
+        generator.evaluateData(patient);
+
+        List<Alert> alerts = generator.getAlerts();
+        assertEquals(1, alerts.size(), "Only 125, 140, 155 rise by more than 10 each time");
+        assertEquals(now - 30000, alerts.get(0).getTimestamp());
+    }
+
+    @Test
+    void testCorrelationRequiresAllSignalsWithinWindow() {
+        AlertGenerator generator = generatorWith(correlationRule("all"));
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(9);
+        patient.addRecord(85.0, "Systolic", now - 200000);
+        patient.addRecord(90.0, "Saturation", now - 100000);
+        patient.addRecord(88.0, "Systolic", now - 50000);
+        patient.addRecord(97.0, "Saturation", now - 40000);
+        generator.evaluateData(patient);
+
+        List<Alert> alerts = generator.getAlerts();
+        assertEquals(1, alerts.size(), "Only the second low systolic reading is within 60 s of low saturation");
+        assertEquals("Hypotensive Hypoxemia", alerts.get(0).getCondition());
+        assertEquals(now - 50000, alerts.get(0).getTimestamp());
+    }
+
+    @Test
+    void testCorrelationSequenceRequiresOrder() {
+        AlertGenerator generator = generatorWith(correlationRule("sequence"));
+        long now = System.currentTimeMillis();
+        Patient first = new Patient(10);
+        first.addRecord(90.0, "Saturation", now - 3000);
+        first.addRecord(85.0, "Systolic", now - 2000);
+        Patient second = new Patient(11);
+        second.addRecord(85.0, "Systolic", now - 3000);
+        second.addRecord(90.0, "Saturation", now - 2000);
+        generator.evaluateData(first);
+        generator.evaluateData(second);
+
+        List<Alert> alerts = generator.getAlerts();
+        assertEquals(1, alerts.size());
+        assertEquals("11", alerts.get(0).getPatientId());
+    }
+
+    @Test
+    void testCorrelationSequenceFindsOrderedMatchAmongInterleavedReadings() {
+        Properties rule = correlationRule("sequence");
+        rule.setProperty("rule.hypotensiveHypoxemia.when", "Systolic<90;Saturation<92;HeartRate>120");
+        AlertGenerator generator = generatorWith(rule);
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(12);
+        patient.addRecord(85.0, "Systolic", now - 4000);
+        patient.addRecord(90.0, "Saturation", now - 3000);
+        patient.addRecord(85.0, "Systolic", now - 2000);
+        patient.addRecord(130.0, "HeartRate", now - 1000);
+        generator.evaluateData(patient);
+
+        List<Alert> alerts = generator.getAlerts();
+        assertEquals(1, alerts.size(), "Systolic, saturation and heart rate matched in order despite the later systolic reading");
+        assertEquals(now - 1000, alerts.get(0).getTimestamp());
+    }
+
+    @Test
+    void testCorrelationDropsStateOlderThanWindow() throws Exception {
+        List<AlertStrategy> rules = RuleLoader.compile(correlationRule("all"));
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        generator.setStrategies(rules);
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(13);
+        patient.addRecord(85.0, "Systolic", now - 120000);
+        generator.evaluateData(patient);
+        Field field = rules.get(0).getClass().getDeclaredField("lastMatches");
+        field.setAccessible(true);
+        Map<?, ?> lastMatches = (Map<?, ?>) field.get(rules.get(0));
+        assertEquals(1, lastMatches.size());
+
+        patient.addRecord(120.0, "Systolic", now);
+        generator.evaluateData(patient);
+
+        assertTrue(lastMatches.isEmpty(), "Matches older than the window should be evicted");
+    }
+
+    @Test
+    void testInvalidRuleIsRejected() {
+        Properties properties = new Properties();
+        properties.setProperty("rules", "broken");
+        properties.setProperty("rule.broken.type", "threshold");
+        properties.setProperty("rule.broken.signal", "HeartRate");
+        properties.setProperty("rule.broken.condition", "High Heart Rate");
+
+        assertThrows(IllegalArgumentException.class, () -> RuleLoader.compile(properties));
+    }
+
+    @Test
+    void testReloadReplacesRules(@TempDir Path directory) throws Exception {
+        Path rulesFile = directory.resolve("rules.properties");
+        Files.writeString(rulesFile, heartRateRule(100));
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        RuleEngine engine = new RuleEngine(generator, rulesFile);
+        engine.reload();
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(8);
+        patient.addRecord(120.0, "HeartRate", now - 2000);
+        generator.evaluateData(patient);
+        assertEquals(1, generator.getAlerts().size());
+
+        Files.writeString(rulesFile, heartRateRule(150));
+        engine.reload();
+        patient.addRecord(120.0, "HeartRate", now - 1000);
+        generator.evaluateData(patient);
+
+        assertEquals(1, generator.getAlerts().size(), "The reloaded rule should use the new limit");
+        assertEquals(1, engine.getRules().size());
+    }
+
+    @Test
+    void testReloadKeepsUnchangedRulesAndTheirWindows(@TempDir Path directory) throws Exception {
+        Path rulesFile = directory.resolve("rules.properties");
+        Files.writeString(rulesFile, dropRule() + "\n" + heartRateRule(100).replace("rules=fast\n", ""));
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        RuleEngine engine = new RuleEngine(generator, rulesFile);
+        engine.reload();
+        AlertStrategy drop = engine.getRules().get(0);
+        long now = System.currentTimeMillis();
+        Patient patient = new Patient(9);
+        patient.addRecord(98.0, "Saturation", now - 3000);
+        generator.evaluateData(patient);
+
+        Files.writeString(rulesFile, dropRule() + "\n" + heartRateRule(150).replace("rules=fast\n", ""));
+        engine.reload();
+        patient.addRecord(92.0, "Saturation", now - 2000);
+        generator.evaluateData(patient);
+
+        assertSame(drop, engine.getRules().get(0), "An unchanged rule should be kept across a reload");
+        assertNotSame(drop, engine.getRules().get(1));
+        assertEquals(1, generator.getAlerts().size(), "The drop should be measured against the reading before the reload");
+        assertEquals("Rapid Drop", generator.getAlerts().get(0).getCondition());
+    }
+
+    @Test
+    void testReloadKeepsAddedStrategies(@TempDir Path directory) throws Exception {
+        Path rulesFile = directory.resolve("rules.properties");
+        Files.writeString(rulesFile, heartRateRule(100));
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        RuleEngine engine = new RuleEngine(generator, rulesFile);
+        AlertStrategy added = new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+                alerts.add(new Alert(patient.getPatientId(), "Custom", record.getTimestamp(), "High"));
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("HeartRate");
+            }
+        };
+        generator.addStrategy(added);
+        engine.reload();
+        Files.writeString(rulesFile, heartRateRule(150));
+        engine.reload();
+
+        Patient patient = new Patient(10);
+        patient.addRecord(120.0, "HeartRate", System.currentTimeMillis());
+        generator.evaluateData(patient);
+
+        assertEquals(1, generator.getAlerts().size());
+        assertEquals("Custom", generator.getAlerts().get(0).getCondition());
+        assertEquals(2, generator.getStrategyStats().size(), "The built-in strategies should be replaced by the rules");
+    }
+
+    @Test
+    void testWatcherReportsBrokenFileOnceUntilItChanges(@TempDir Path directory) throws Exception {
+        Path rulesFile = directory.resolve("rules.properties");
+        Files.writeString(rulesFile, "rules=broken\nrule.broken.type=unknown");
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        RuleEngine engine = new RuleEngine(generator, rulesFile);
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(errors, true));
+        try {
+            engine.startWatching(5, TimeUnit.MILLISECONDS);
+            Thread.sleep(200);
+            assertEquals(1, errors.toString().split("Failed to reload", -1).length - 1,
+                    "An unchanged broken file should be reported once");
+
+            Files.writeString(rulesFile, heartRateRule(100));
+            Files.setLastModifiedTime(rulesFile, FileTime.fromMillis(System.currentTimeMillis() + 60000));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (engine.getRules().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        } finally {
+            engine.stop();
+            System.setErr(originalErr);
+        }
+        assertEquals(1, engine.getRules().size(), "The fixed file should be loaded once it changes");
+    }
+
+    private static AlertGenerator generatorWith(Properties rules) {
+        AlertGenerator generator = new AlertGenerator(new DataStorage());
+        generator.setStrategies(RuleLoader.compile(rules));
+        return generator;
+    }
+
+    private static Properties correlationRule(String mode) {
+        Properties properties = new Properties();
+        properties.setProperty("rules", "hypotensiveHypoxemia");
+        properties.setProperty("rule.hypotensiveHypoxemia.type", "correlation");
+        properties.setProperty("rule.hypotensiveHypoxemia.condition", "Hypotensive Hypoxemia");
+        properties.setProperty("rule.hypotensiveHypoxemia.mode", mode);
+        properties.setProperty("rule.hypotensiveHypoxemia.when", "Systolic<90;Saturation<92");
+        properties.setProperty("rule.hypotensiveHypoxemia.window", "60000");
+        return properties;
+    }
+
+    private static String dropRule() {
+        return String.join("\n",
+                "rules=drop,fast",
+                "rule.drop.type=drop",
+                "rule.drop.signal=Saturation",
+                "rule.drop.condition=Rapid Drop",
+                "rule.drop.amount=5",
+                "rule.drop.window=600000");
+    }
+
+    private static String heartRateRule(int limit) {
+        return String.join("\n",
+                "rules=fast",
+                "rule.fast.type=threshold",
+                "rule.fast.signal=HeartRate",
+                "rule.fast.condition=High Heart Rate",
+                "rule.fast.above=" + limit);
+    }
+}
@@ -0,0 +1,154 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertGenerator;
+import com.alerts.StreamingAlertEngine;
+import com.alerts.Strategy.AlertStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingAlertEngineTest {
+    private DataStorage dataStorage;
+    private AlertGenerator alertGenerator;
+    private StreamingAlertEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        dataStorage = new DataStorage();
+        alertGenerator = new AlertGenerator(dataStorage);
+        engine = new StreamingAlertEngine(alertGenerator, 2);
+        engine.start(dataStorage);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void testAlertRaisedWhenRecordIsWritten() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        dataStorage.addPatientData(1, 80.0, "HeartRate", now - 1000);
+        dataStorage.addPatientData(1, 130.0, "HeartRate", now);
+
+        waitForAlerts(1);
+
+        assertEquals(1, alertGenerator.getAlerts().size());
+        assertEquals("High Heart Rate", alertGenerator.getAlerts().get(0).getCondition());
+        assertEquals(1, engine.getAlertLatencyMicros().getCount());
+
+        // The streamed records are not evaluated a second time by polling
+        alertGenerator.evaluateData(dataStorage.getPatient(1));
+        assertEquals(1, alertGenerator.getAlerts().size());
+    }
+
+    @Test
+    void testManyPatientsUnderLoad() throws InterruptedException {
+        long start = System.currentTimeMillis() - 100000;
+        for (int sample = 0; sample < 100; sample++) {
+            for (int patientId = 1; patientId <= 50; patientId++) {
+                double value = sample == 99 ? 2.0 : 0.5;
+                dataStorage.addPatientData(patientId, value, "ECG", start + sample * 1000L);
+            }
+        }
+
+        waitForAlerts(50);
+
+        assertEquals(50, alertGenerator.getAlerts().size());
+        assertEquals(50, engine.getAlertLatencyMicros().getCount());
+        // Alerts are raised while the record is written, not on a polling schedule; the bound leaves room for slow machines
+        assertTrue(engine.getAlertLatencyMicros().getPercentile(99) < TimeUnit.SECONDS.toMicros(1),
+                "p99 sample-to-alert latency: " + engine.getAlertLatencyMicros().getPercentile(99) + " us");
+    }
+
+    @Test
+    void testInlineAlertsDoNotWaitForBackgroundTier() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        alertGenerator.addStrategy(new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("HeartRate");
+            }
+        });
+        long now = System.currentTimeMillis();
+
+        dataStorage.addPatientData(1, 80.0, "HeartRate", now - 1000);
+        dataStorage.addPatientData(1, 130.0, "HeartRate", now);
+
+        // The threshold alert is raised on the writing thread while the slow background strategy still blocks
+        assertEquals(1, alertGenerator.getAlerts().size());
+        assertEquals("High Heart Rate", alertGenerator.getAlerts().get(0).getCondition());
+        release.countDown();
+    }
+
+    @Test
+    void testPollingEvaluatesBackgroundTierOfRecordsOnlyEvaluatedInline() throws InterruptedException {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> checked = new CopyOnWriteArrayList<>();
+        long now = System.currentTimeMillis();
+        alertGenerator.addStrategy(new AlertStrategy() {
+            @Override
+            public void checkAlert(Patient patient, PatientRecord record, List<Alert> alerts) {
+                checked.add(record.getTimestamp());
+                if (record.getTimestamp() == now - 1000) {
+                    firstStarted.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+
+            @Override
+            public Set<String> getRecordTypes() {
+                return Set.of("HeartRate");
+            }
+        });
+
+        dataStorage.addPatientData(1, 80.0, "HeartRate", now - 1000);
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        // Evaluated inline at once, while the background worker is still stuck on the first record
+        dataStorage.addPatientData(1, 130.0, "HeartRate", now);
+        alertGenerator.evaluateData(dataStorage.getPatient(1));
+
+        assertEquals(List.of(now - 1000, now), checked, "Polling should run the background strategy on the second record");
+        assertEquals(1, alertGenerator.getAlerts().size(), "The inline threshold strategy should not run again");
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.getEvaluationLatencyMicros().getCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, engine.getEvaluationLatencyMicros().getCount());
+        assertEquals(2, checked.size(), "The worker should skip the record polling already evaluated");
+    }
+
+    private void waitForAlerts(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (alertGenerator.getAlerts().size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
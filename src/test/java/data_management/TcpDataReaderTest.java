@@ -0,0 +1,97 @@
+package data_management;
+
+import com.data_management.DataStorage;
+import com.data_management.DataStorageProcessor;
+import com.data_management.PatientRecord;
+import com.data_management.RecordPublisher;
+import com.data_management.TcpDataReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpDataReaderTest {
+
+    @Test
+    void testReadsFromMultipleEndpoints() throws Exception {
+        try (ServerSocket first = new ServerSocket(0); ServerSocket second = new ServerSocket(0)) {
+            DataStorage dataStorage = new DataStorage();
+            TcpDataReader reader = new TcpDataReader();
+            reader.readData(dataStorage, "localhost:" + first.getLocalPort() + ",tcp://localhost:" + second.getLocalPort());
+
+            try (Socket firstClient = first.accept(); Socket secondClient = second.accept()) {
+                PrintWriter firstOut = new PrintWriter(firstClient.getOutputStream(), true);
+                PrintWriter secondOut = new PrintWriter(secondClient.getOutputStream(), true);
+
+                firstOut.println("1,1700000000000,Saturation,97.0%");
+                firstOut.println("1,1700000000001,ECG,0.12345678901234567");
+                firstOut.print("1,1700000000002,Systol");
+                firstOut.flush();
+                Thread.sleep(100);
+                firstOut.println("ic,121.5");
+                secondOut.println("2,1700000000003,Alert,triggered");
+                secondOut.println("2,1700000000004,DiastolicPressure,80.0");
+
+                waitForRecords(dataStorage, 4);
+            } finally {
+                reader.close();
+            }
+
+            List<PatientRecord> records = dataStorage.getRecords(1, 0, Long.MAX_VALUE);
+            assertEquals(3, records.size());
+            assertEquals(97.0, records.get(0).getMeasurementValue());
+            assertEquals("Saturation", records.get(0).getRecordType());
+            assertEquals(0.12345678901234567, records.get(1).getMeasurementValue());
+            assertEquals(121.5, records.get(2).getMeasurementValue());
+            assertEquals("Systolic", records.get(2).getRecordType());
+
+            List<PatientRecord> secondRecords = dataStorage.getRecords(2, 0, Long.MAX_VALUE);
+            assertEquals(1, secondRecords.size());
+            assertEquals(1700000000004L, secondRecords.get(0).getTimestamp());
+            assertEquals(1, reader.getParseErrors());
+        }
+    }
+
+    @Test
+    void testEmitsRecordsToPublisher() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            DataStorage dataStorage = new DataStorage();
+            RecordPublisher publisher = new RecordPublisher(100);
+            publisher.subscribe(new DataStorageProcessor(dataStorage));
+            TcpDataReader reader = new TcpDataReader();
+            reader.readData(publisher, "localhost:" + server.getLocalPort());
+
+            try (Socket client = server.accept()) {
+                PrintWriter out = new PrintWriter(client.getOutputStream(), true);
+                out.println("1,1700000000000,Saturation,97.0%");
+                out.println("1,1700000000001,HeartRate,72.0");
+
+                // Batches are published per selector wake-up, without waiting until they are full
+                waitForRecords(dataStorage, 2);
+            } finally {
+                reader.close();
+            }
+
+            assertEquals(2, dataStorage.getPatientDataCount());
+            assertTrue(publisher.isClosed());
+            assertThrows(IllegalStateException.class, () -> reader.readData(dataStorage, "localhost:1"));
+        }
+    }
+
+    @Test
+    void testRejectsMalformedEndpoint() {
+        assertThrows(IOException.class, () -> new TcpDataReader().readData(new DataStorage(), "localhost"));
+    }
+
+    private static void waitForRecords(DataStorage dataStorage, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataStorage.getPatientDataCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
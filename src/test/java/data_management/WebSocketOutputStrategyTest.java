@@ -0,0 +1,88 @@
+package data_management;
+
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketOutputStrategyTest {
+
+    @Test
+    void testFullBatchIsOneFrameAndPartialBatchLeavesAfterLinger() throws Exception {
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(8893, 3, 300);
+        RecordingClient client = connect(8893);
+        try {
+            output.output(1, 1000, "Saturation", "97.0");
+            output.output(2, 1001, "Saturation", "95.0");
+            output.output(3, 1002, "Saturation", "93.0");
+            output.output(4, 1003, "Saturation", "91.0");
+
+            assertEquals("1,1000,Saturation,97.0\n2,1001,Saturation,95.0\n3,1002,Saturation,93.0",
+                    client.frames.poll(5, TimeUnit.SECONDS));
+            // The fourth record waits for the linger time instead of for two more records
+            assertEquals("4,1003,Saturation,91.0", client.frames.poll(5, TimeUnit.SECONDS));
+        } finally {
+            client.closeBlocking();
+            output.stop();
+        }
+    }
+
+    @Test
+    void testZeroLingerSendsEveryRecordImmediately() throws Exception {
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(8894, 10, 0);
+        RecordingClient client = connect(8894);
+        try {
+            output.output(1, 1000, "HeartRate", "72.0");
+            assertEquals("1,1000,HeartRate,72.0", client.frames.poll(1, TimeUnit.SECONDS));
+        } finally {
+            client.closeBlocking();
+            output.stop();
+        }
+    }
+
+    private static RecordingClient connect(int port) throws Exception {
+        RecordingClient client = new RecordingClient(new URI("ws://localhost:" + port));
+        long deadline = System.currentTimeMillis() + 5000;
+        // The server starts asynchronously, so the first attempts may be refused
+        while (!client.connectBlocking() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            client = new RecordingClient(new URI("ws://localhost:" + port));
+        }
+        assertTrue(client.isOpen());
+        // Give the server time to register the connection before broadcasting
+        Thread.sleep(200);
+        return client;
+    }
+
+    private static class RecordingClient extends WebSocketClient {
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+
+        RecordingClient(URI serverUri) {
+            super(serverUri);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(String message) {
+            frames.add(message);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+        }
+
+        @Override
+        public void onError(Exception ex) {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package data_management;
+
+import com.data_management.DataStorage;
+import com.data_management.MockWebSocketServer;
+import com.data_management.PatientRecord;
+import com.data_management.WebSocketClientCode;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketReconnectTest {
+
+    @Test
+    void testReconnectKeepsHistoryAndSendsResumePoint() throws Exception {
+        InetSocketAddress address = new InetSocketAddress("localhost", 8891);
+        MockWebSocketServer firstServer = new MockWebSocketServer(address);
+        firstServer.start();
+        assertTrue(firstServer.awaitStart(5, TimeUnit.SECONDS));
+
+        DataStorage dataStorage = new DataStorage();
+        WebSocketClientCode client = new WebSocketClientCode(new URI("ws://localhost:8891"), dataStorage);
+        assertTrue(client.connectBlocking());
+        // The server registers the connection asynchronously; broadcasts before that are lost
+        long openDeadline = System.currentTimeMillis() + 5000;
+        while (firstServer.getConnections().isEmpty() && System.currentTimeMillis() < openDeadline) {
+            Thread.sleep(10);
+        }
+
+        firstServer.broadcast("1,98.0,Saturation,1700000000000");
+        firstServer.broadcast("2,120.0,Systolic,1700000000500");
+        Thread.sleep(500);
+
+        // Simulate a dropped connection
+        firstServer.stop();
+        Thread.sleep(200);
+        assertFalse(client.isOpen());
+        assertFalse(client.isConnectionSuccessful());
+
+        MockWebSocketServer secondServer = new MockWebSocketServer(address);
+        secondServer.start();
+        try {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (secondServer.getReceivedMessages().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+
+            List<PatientRecord> records = dataStorage.getRecords(1, 0, Long.MAX_VALUE);
+            assertEquals(1, records.size());
+            assertTrue(client.isOpen());
+
+            String resume = secondServer.getReceivedMessages().get(0);
+            assertTrue(resume.startsWith(WebSocketClientCode.RESUME_PREFIX));
+            assertTrue(resume.contains("1=1700000000000"));
+            assertTrue(resume.contains("2=1700000000500"));
+        } finally {
+            client.close();
+            secondServer.stop();
+        }
+    }
+
+    @Test
+    void testCloseDuringReconnectStopsReconnecting() throws Exception {
+        InetSocketAddress address = new InetSocketAddress("localhost", 8892);
+        MockWebSocketServer server = new MockWebSocketServer(address);
+        server.start();
+        assertTrue(server.awaitStart(5, TimeUnit.SECONDS));
+
+        CountDownLatch reconnectStarted = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        WebSocketClientCode client = new WebSocketClientCode(new URI("ws://localhost:8892"), new DataStorage()) {
+            @Override
+            public boolean reconnectBlocking() throws InterruptedException {
+                attempts.incrementAndGet();
+                reconnectStarted.countDown();
+                closed.await(5, TimeUnit.SECONDS);
+                return super.reconnectBlocking();
+            }
+        };
+        try {
+            // A lost connection schedules the first reconnect attempt
+            client.onClose(1006, "connection lost", true);
+            assertTrue(reconnectStarted.await(5, TimeUnit.SECONDS));
+
+            client.close();
+            closed.countDown();
+            Thread.sleep(1500);
+
+            assertFalse(client.isOpen());
+            assertTrue(server.getConnections().isEmpty());
+            assertEquals(1, attempts.get());
+            assertThrows(IllegalStateException.class, () -> client.setAutoReconnect(true));
+        } finally {
+            client.close();
+            server.stop();
+        }
+    }
+}